@@ -0,0 +1,62 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import rules.*;
+import tables.*;
+
+/**
+ * Benchmarks of Zobrist hashing and of the transposition table, each operation covering
+ * every position of the benchmark set.
+ * @author Spork Innovation Technologies
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashingBenchmark {
+	/** The size of the transposition table in megabytes. */
+	private static final int TABLE_MEGABYTES = 1;
+
+	private Position[] positions;
+	private long[] hashes;
+	private int[] best_moves;
+	private Round table;
+
+	@Setup(Level.Trial)
+	public void setUp(){
+		positions = Positions.load();
+		hashes = new long[positions.length];
+		best_moves = new int[positions.length];
+		table = new Round(TABLE_MEGABYTES);
+		for (int i = 0; i < positions.length; i++){
+			hashes[i] = positions[i].getHash();
+			best_moves[i] = positions[i].getMoves()[0];
+			table.set(hashes[i], i, (short) 1, true, false, best_moves[i], positions[i].isWhiteToMove());
+		}
+	}
+
+	@Benchmark
+	public long createInitialHash(){
+		long h = 0;
+		for (Position p : positions)
+			h ^= Zobrist.createinitialhash(p.getWhitePieces(), p.getBlackPieces(),
+					p.getCastlingRights(), p.getEnPassantSquare(), p.isWhiteToMove());
+		return h;
+	}
+	@Benchmark
+	public void roundSet(){
+		for (int i = 0; i < hashes.length; i++)
+			table.set(hashes[i], i, (short) 1, true, false, best_moves[i], true);
+	}
+	@Benchmark
+	public long roundGet(){
+		long data = 0;
+		for (long hash : hashes) data ^= table.get(hash);
+		return data;
+	}
+}
@@ -0,0 +1,82 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import rules.*;
+import eval.Lorenz;
+import tables.PawnTable;
+
+/**
+ * Benchmarks of the Lorenz feature extractors, each operation covering every position of
+ * the benchmark set. Lorenz keeps the features it has worked out, so every extraction is
+ * done on a new Lorenz object. The "none" extractor measures that overhead alone. The pawn
+ * structure extractors are measured with and without the pawn hash table, which they fill
+ * during the warmup.
+ * @author Spork Innovation Technologies
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LorenzBenchmark {
+	/** The feature of the "none" extractor, which only constructs the Lorenz objects. */
+	private static final byte NONE = -1;
+
+	/** The feature extractor to run, named after the Lorenz method computing it. */
+	@Param({"none", "material", "dynamics", "pawnformation", "pawnislands", "doublepawns", "space",
+		"kingsafety", "weakpawns", "sentinelsquares", "openlines", "passedpawns"})
+	public String extractor;
+	/** Whether the pawn structure features are taken from the pawn hash table. */
+	@Param({"true", "false"})
+	public boolean pawnhash;
+
+	private Position[] positions;
+	private byte feature;
+	private PawnTable table;
+
+	@Setup(Level.Trial)
+	public void setUp(){
+		positions = Positions.load();
+		feature = featureOf(extractor);
+		table = Lorenz.getPawnTable();
+		if (!pawnhash) Lorenz.setPawnTable(null);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown(){
+		Lorenz.setPawnTable(table);
+	}
+
+	@Benchmark
+	public long extract(){
+		long sum = 0;
+		for (Position p : positions){
+			Lorenz lz = new Lorenz(p);
+			if (feature != NONE) sum += lz.get(feature);
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns a feature computed by the named extractor.
+	 */
+	private static byte featureOf(String extractor){
+		if (extractor.equals("none")) return NONE;
+		if (extractor.equals("material")) return Lorenz.WHITE_ABSOLUTE_MATERIAL;
+		if (extractor.equals("dynamics")) return Lorenz.DYNAMICS;
+		if (extractor.equals("pawnformation")) return Lorenz.WHITE_COLUMN_A;
+		if (extractor.equals("pawnislands")) return Lorenz.PAWN_ISLANDS;
+		if (extractor.equals("doublepawns")) return Lorenz.WHITE_DOUBLED_PAWNS;
+		if (extractor.equals("space")) return Lorenz.SPACE;
+		if (extractor.equals("kingsafety")) return Lorenz.KING_SAFETY;
+		if (extractor.equals("weakpawns")) return Lorenz.WHITE_BACKWARDS;
+		if (extractor.equals("sentinelsquares")) return Lorenz.WHITE_SENTINELS;
+		if (extractor.equals("openlines")) return Lorenz.OPEN_FILES;
+		if (extractor.equals("passedpawns")) return Lorenz.WHITE_PASSERS;
+		throw new IllegalArgumentException("Unknown extractor: " + extractor);
+	}
+}
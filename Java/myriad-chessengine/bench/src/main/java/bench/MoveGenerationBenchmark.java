@@ -0,0 +1,79 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rules.*;
+
+/**
+ * Benchmarks of the move generator and of making moves, each operation covering every
+ * position of the benchmark set.
+ * @author Spork Innovation Technologies
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+	private Position[] templates;
+	private Position[] positions;
+	private Move[][] moves;
+	private int[] list;
+
+	@Setup(Level.Trial)
+	public void setUp(){
+		templates = Positions.load();
+		positions = new Position[templates.length];
+		moves = new Move[templates.length][];
+		Position[] scratch = Positions.load();
+		for (int i = 0; i < templates.length; i++) moves[i] = scratch[i].generateAllMoves();
+		list = new int[Position.MAX_MOVES];
+	}
+	/**
+	 * Positions cache their moves, so generateAllMoves gets copies that have not been
+	 * asked for them yet.
+	 */
+	@Setup(Level.Invocation)
+	public void freshPositions(){
+		for (int i = 0; i < templates.length; i++) positions[i] = templates[i].copy();
+	}
+
+	@Benchmark
+	public void generateAllMoves(Blackhole bh){
+		for (Position p : positions) bh.consume(p.generateAllMoves());
+	}
+	@Benchmark
+	public int generateMoves(){
+		int n = 0;
+		for (Position p : templates) n += p.generateMoves(list, 0);
+		return n;
+	}
+	@Benchmark
+	public void makeMove(Blackhole bh){
+		for (int i = 0; i < templates.length; i++)
+			for (Move m : moves[i]) bh.consume(templates[i].makeMove(m));
+	}
+	@Benchmark
+	public long doUndoMove(){
+		long hashes = 0;
+		for (int i = 0; i < templates.length; i++){
+			Position p = templates[i];
+			for (Move m : moves[i]){
+				p.doMove(m);
+				hashes ^= p.getHash();
+				p.undoMove();
+			}
+		}
+		return hashes;
+	}
+	@Benchmark
+	public int isInCheck(){
+		int checks = 0;
+		for (Position p : templates) if (p.isInCheck(false)) checks++;
+		return checks;
+	}
+}
@@ -0,0 +1,44 @@
+package bench;
+
+import rules.*;
+import debug.Utility;
+
+/**
+ * The fixed set of positions every benchmark runs over, so that results can be compared
+ * between releases. It mixes the usual perft positions with middlegames and endgames from
+ * real games.
+ * @author Spork Innovation Technologies
+ */
+public final class Positions {
+	//----------------------Constants----------------------
+	/** The FEN strings of the benchmark positions. */
+	public static final String[] FENS = {
+		"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+		"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+		"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+		"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+		"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+		"rnbqkbnr/pp3ppp/8/2p1p3/3pP3/3P2P1/PPP1NPBP/R1BQK1NR b KQkq - 1 6",
+		"r3k2r/5pp1/p3p2p/B7/1P1p1P2/1Nb3n1/P5P1/2R2RK1 w kq - 1 25",
+		"r1b2k2/pp2p1bQ/2nqprB1/3p2P1/2n5/1NP4P/PP4P1/R1B1R1K1 b - - 0 20",
+		"1k1r3r/ppq2pb1/3p4/1B1Rn1p1/4P2p/1Q4BP/PP3PP1/5RK1 w - - 0 21",
+		"8/p7/P4p1k/2R1nP2/2P1P1p1/3r4/2K5/6R1 b - - 2 38",
+		"8/8/3k2p1/8/3PKP1p/1p5P/1P6/8 b - - 2 43",
+	};
+	//----------------------End of Constants----------------------
+
+	private Positions(){}
+
+	//----------------------Methods----------------------
+	/**
+	 * Loads the benchmark positions. Each call gives new positions, with nothing cached yet.
+	 * @return The positions, in the order of FENS.
+	 */
+	public static Position[] load(){
+		Position[] positions = new Position[FENS.length];
+		for (int i = 0; i < FENS.length; i++) positions[i] = Utility.loadFEN(FENS[i]);
+		return positions;
+	}
+	//----------------------End of Methods----------------------
+}
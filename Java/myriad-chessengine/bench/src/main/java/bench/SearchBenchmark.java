@@ -0,0 +1,59 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import rules.*;
+import tree.*;
+
+/**
+ * Benchmarks of the parallel search modes, each operation searching every position of the
+ * benchmark set to a fixed depth. The transposition table is cleared before each position,
+ * so every operation does the same work and the scaling of the modes can be compared.
+ * @author Spork Innovation Technologies
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class SearchBenchmark {
+	/** The depth every position is searched to. */
+	@Param({"5"})
+	public int depth;
+	/** The number of search threads. */
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+	/** The parallel mode: "shared" for Pine.SHARED_HASH, "split" for Pine.SPLIT_POINTS. */
+	@Param({"shared", "split"})
+	public String mode;
+
+	private Position[] positions;
+	private Pine tree;
+
+	@Setup(Level.Trial)
+	public void setUp(){
+		positions = Positions.load();
+		tree = new Pine();
+		tree.setParallelMode(mode.equals("split") ? Pine.SPLIT_POINTS : Pine.SHARED_HASH);
+		tree.setThreads(threads);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown(){
+		tree.setThreads(1);
+	}
+
+	@Benchmark
+	public long search(){
+		long nodes = 0;
+		for (Position p : positions){
+			Pine.table.clear();
+			tree.search(p, SearchLimits.depth(depth));
+			nodes += tree.getNodes();
+		}
+		return nodes;
+	}
+}
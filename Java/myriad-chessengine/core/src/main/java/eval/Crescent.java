@@ -0,0 +1,212 @@
+package eval;
+
+import rules.*;
+
+public class Crescent {
+	/**
+	 * The piece-square tables: a bonus for each piece type on each square, one table for the
+	 * middle game and one for the end game. The tables are laid out as the board is seen by
+	 * white, the eighth rank first, and black uses them mirrored. A position keeps the sums of
+	 * the bonuses of its pieces up to date as moves are made (see Position.getMiddleGameScore).
+	 * They are not part of evaluate yet: scoring them changes how the engine plays, which is
+	 * for a change of the evaluation measured by play.
+	 */
+	public static final class PieceTables {
+		/** The phase each piece type counts for, the phase of the starting position is TOTAL_PHASE. */
+		public static final int[] PHASE = {0, 2, 1, 1, 4, 0};
+		/** The phase of the starting position, the full middle game. */
+		public static final int TOTAL_PHASE = 24;
+		private static final short[][] MIDDLE_GAME = {
+			{	// pawn
+				  0,  0,  0,  0,  0,  0,  0,  0,
+				 50, 50, 50, 50, 50, 50, 50, 50,
+				 10, 10, 20, 30, 30, 20, 10, 10,
+				  5,  5, 10, 25, 25, 10,  5,  5,
+				  0,  0,  0, 20, 20,  0,  0,  0,
+				  5, -5,-10,  0,  0,-10, -5,  5,
+				  5, 10, 10,-20,-20, 10, 10,  5,
+				  0,  0,  0,  0,  0,  0,  0,  0
+			}, {	// rook
+				  0,  0,  0,  0,  0,  0,  0,  0,
+				  5, 10, 10, 10, 10, 10, 10,  5,
+				 -5,  0,  0,  0,  0,  0,  0, -5,
+				 -5,  0,  0,  0,  0,  0,  0, -5,
+				 -5,  0,  0,  0,  0,  0,  0, -5,
+				 -5,  0,  0,  0,  0,  0,  0, -5,
+				 -5,  0,  0,  0,  0,  0,  0, -5,
+				  0,  0,  0,  5,  5,  0,  0,  0
+			}, {	// knight
+				-50,-40,-30,-30,-30,-30,-40,-50,
+				-40,-20,  0,  0,  0,  0,-20,-40,
+				-30,  0, 10, 15, 15, 10,  0,-30,
+				-30,  5, 15, 20, 20, 15,  5,-30,
+				-30,  0, 15, 20, 20, 15,  0,-30,
+				-30,  5, 10, 15, 15, 10,  5,-30,
+				-40,-20,  0,  5,  5,  0,-20,-40,
+				-50,-40,-30,-30,-30,-30,-40,-50
+			}, {	// bishop
+				-20,-10,-10,-10,-10,-10,-10,-20,
+				-10,  0,  0,  0,  0,  0,  0,-10,
+				-10,  0,  5, 10, 10,  5,  0,-10,
+				-10,  5,  5, 10, 10,  5,  5,-10,
+				-10,  0, 10, 10, 10, 10,  0,-10,
+				-10, 10, 10, 10, 10, 10, 10,-10,
+				-10,  5,  0,  0,  0,  0,  5,-10,
+				-20,-10,-10,-10,-10,-10,-10,-20
+			}, {	// queen
+				-20,-10,-10, -5, -5,-10,-10,-20,
+				-10,  0,  0,  0,  0,  0,  0,-10,
+				-10,  0,  5,  5,  5,  5,  0,-10,
+				 -5,  0,  5,  5,  5,  5,  0, -5,
+				  0,  0,  5,  5,  5,  5,  0, -5,
+				-10,  5,  5,  5,  5,  5,  0,-10,
+				-10,  0,  5,  0,  0,  0,  0,-10,
+				-20,-10,-10, -5, -5,-10,-10,-20
+			}, {	// king, sheltered behind its pawns
+				-30,-40,-40,-50,-50,-40,-40,-30,
+				-30,-40,-40,-50,-50,-40,-40,-30,
+				-30,-40,-40,-50,-50,-40,-40,-30,
+				-30,-40,-40,-50,-50,-40,-40,-30,
+				-20,-30,-30,-40,-40,-30,-30,-20,
+				-10,-20,-20,-20,-20,-20,-20,-10,
+				 20, 20,  0,  0,  0,  0, 20, 20,
+				 20, 30, 10,  0,  0, 10, 30, 20
+			}
+		};
+		private static final short[][] END_GAME = {
+			{	// pawn, the closer to promotion the better
+				  0,  0,  0,  0,  0,  0,  0,  0,
+				 80, 80, 80, 80, 80, 80, 80, 80,
+				 50, 50, 50, 50, 50, 50, 50, 50,
+				 30, 30, 30, 30, 30, 30, 30, 30,
+				 20, 20, 20, 20, 20, 20, 20, 20,
+				 10, 10, 10, 10, 10, 10, 10, 10,
+				  0,  0,  0,  0,  0,  0,  0,  0,
+				  0,  0,  0,  0,  0,  0,  0,  0
+			},
+			MIDDLE_GAME[Piece.ROOK], MIDDLE_GAME[Piece.KNIGHT], MIDDLE_GAME[Piece.BISHOP],
+			MIDDLE_GAME[Piece.QUEEN],
+			{	// king, in the centre where it supports its pawns
+				-50,-40,-30,-20,-20,-30,-40,-50,
+				-30,-20,-10,  0,  0,-10,-20,-30,
+				-30,-10, 20, 30, 30, 20,-10,-30,
+				-30,-10, 30, 40, 40, 30,-10,-30,
+				-30,-10, 30, 40, 40, 30,-10,-30,
+				-30,-10, 20, 30, 30, 20,-10,-30,
+				-30,-30,  0,  0,  0,  0,-30,-30,
+				-50,-30,-30,-30,-30,-30,-30,-50
+			}
+		};
+
+		private PieceTables(){
+		}
+		/**
+		 * Returns the middle game bonus of a piece, from white's side.
+		 * @param type The type of the piece.
+		 * @param colour The colour of the piece.
+		 * @param index The 0-63 index of its square, see Bitboard.
+		 * @return The bonus in centipawns, negative for a black piece.
+		 */
+		public static int middleGame(byte type, byte colour, int index){
+			return colour == Piece.WHITE ? MIDDLE_GAME[type][index ^ 56] : -MIDDLE_GAME[type][index];
+		}
+		/**
+		 * Returns the end game bonus of a piece, from white's side.
+		 * @param type The type of the piece.
+		 * @param colour The colour of the piece.
+		 * @param index The 0-63 index of its square, see Bitboard.
+		 * @return The bonus in centipawns, negative for a black piece.
+		 */
+		public static int endGame(byte type, byte colour, int index){
+			return colour == Piece.WHITE ? END_GAME[type][index ^ 56] : -END_GAME[type][index];
+		}
+	}
+	protected static class Weights {
+		// TODO Implement a set of weights
+		public final short SWEET_CENTER;
+		public final short KING_PROXIMITY;
+		public final short SPECIAL_PAWNS;
+		public final short CENTER;
+		public final short SENTINELS;
+		public final short KING_SAFETY;
+		public final short SPACE;
+		public final short SIMPLICITY;
+		
+		// opening weights?
+		public Weights (){
+			SWEET_CENTER = 10;
+			KING_PROXIMITY = 8;
+			SPECIAL_PAWNS = 4;
+			CENTER = 8;
+			SENTINELS = 10;
+			KING_SAFETY = 4;
+			SPACE = 1;
+			SIMPLICITY = 1;
+		}
+	}
+	public static final long MATERIAL_MASK = 0xffff;
+	public static final int TOTAL_MATERIAL = 8170;
+	public int phase_factor;
+	Lorenz lz;
+	
+	/**
+	 * Evaluates a position from white's side: the material, and a centipawn for each sentinel
+	 * square, each square a side controls (see Lorenz.WHITE_SENTINELS). The material is read
+	 * from the sums the position keeps up to date as moves are made, and the sentinel squares
+	 * are worked out without building a Lorenz.
+	 * @param p The position.
+	 * @return The score in centipawns, positive if white is better.
+	 */
+	public static int evaluate(Position p){
+		long[] sentinels = new long[2];
+		Lorenz.sentinelSquares(p, sentinels);
+		return p.getMaterial(true) - p.getMaterial(false)
+				+ Long.bitCount(sentinels[0]) - Long.bitCount(sentinels[1]);
+	}
+	public Crescent (Position p){
+		lz = new Lorenz (p);
+		long w_mat = lz.get(Lorenz.WHITE_ABSOLUTE_MATERIAL), b_mat = lz.get(Lorenz.BLACK_ABSOLUTE_MATERIAL);
+		phase_factor = (int) ((((w_mat >> 20) + (b_mat >> 20)) * 256 + TOTAL_MATERIAL/ 2) / TOTAL_MATERIAL);
+	}
+	public void determineSurplus(){
+		long w_absolute = lz.get(Lorenz.WHITE_ABSOLUTE_MATERIAL), 
+				b_absolute = lz.get(Lorenz.BLACK_ABSOLUTE_MATERIAL);
+		long diff = ((w_absolute & MATERIAL_MASK) >> 20)- ((b_absolute & MATERIAL_MASK) >> 20);
+		if (diff > 200) {
+			// TODO: set weights to decisive white advantage
+		} else if (diff >= 20){
+			// TODO: set weights to convertible white advantage
+		} else if (diff > -20){
+			// TODO: set weights to play with even material
+		} else if (diff < -20){
+			// TODO: set weights to convertible black advantage
+		} else if (diff < -200){
+			// TODO: set weights to decisive black advantage
+		}
+	}
+	public void determineGamePhase(){
+		long w_absolute = lz.get(Lorenz.WHITE_ABSOLUTE_MATERIAL),
+				b_absolute = lz.get(Lorenz.BLACK_ABSOLUTE_MATERIAL);
+		long average = (((w_absolute & MATERIAL_MASK)>>20) + ((b_absolute & MATERIAL_MASK)>>20))/2;
+		if (average > 2800){
+			// set weights towards middle game.
+		} else if (average > 2000){
+			// set weights towards late-middle game.
+		} else if (average > 1200){
+			// set weights to early end game.
+		} else {
+			// set weights to end game. 
+		}
+	}
+	public void weightSentinels(){
+		// TODO: Check weights
+		// TODO: Weight central squares.
+		// TODO: Weight squares around the king if king middle game
+		// TODO: Weight squares in front of "special pawns" in the late and endgame.
+		// TODO: Weight squares on open and half open files in the middle and early end game
+		// TODO: Devalue squares around the edge of the board.
+	}
+	public void determineFocus(){
+		// TODO determine which side to focus
+	}
+}
\ No newline at end of file
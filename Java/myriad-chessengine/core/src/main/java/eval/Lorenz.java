@@ -2,12 +2,18 @@ package eval;
 
 import java.util.*;
 import rules.*;
+import tables.PawnTable;
 
 /**
  * Lorenz is the third framework to the chess engine. It is named after the Lorenz cipher
  * machine which use the similar bitwise manipulation techniques. This new framework is
  * approximately 30 times faster in certain areas by bypassing the string concatenation
  * step and replacing it with bitwise manipulation. 
+ * <p>
+ * The pawn structure features (the columns, islands, doubled, backward, isolated and passed
+ * pawns) depend on nothing but the pawns, which rarely change from one position to the next.
+ * They are worked out together and kept in a pawn hash table shared by every Lorenz, indexed
+ * by the pawn key of the position, so a position with pawns seen before copies them instead.
  * @author Jesse Wang, Andy Huang, Jacob Huang
  */
 public final class Lorenz {
@@ -80,12 +86,25 @@ public final class Lorenz {
 	private static final short BISHOP_VALUE = 330;
 	private static final short ROOK_VALUE = 500;
 	private static final short QUEEN_VALUE = 975;
+	/** The features kept in the pawn hash table, in the order of the words of an entry. */
+	private static final byte[] PAWN_FEATURES = { BUFFER1, WHITE_COLUMN_A, WHITE_COLUMN_B,
+		WHITE_COLUMN_C, WHITE_COLUMN_D, WHITE_COLUMN_E, WHITE_COLUMN_F, WHITE_COLUMN_G,
+		WHITE_COLUMN_H, BUFFER2, BLACK_COLUMN_A, BLACK_COLUMN_B, BLACK_COLUMN_C, BLACK_COLUMN_D,
+		BLACK_COLUMN_E, BLACK_COLUMN_F, BLACK_COLUMN_G, BLACK_COLUMN_H, BUFFER3, PAWN_ISLANDS,
+		WHITE_PASSERS, BLACK_PASSERS, WHITE_DOUBLED_PAWNS, BLACK_DOUBLED_PAWNS, WHITE_BACKWARDS,
+		BLACK_BACKWARDS, WHITE_ISOLANIS, BLACK_ISOLANIS };
+	/** The log, base 2, of the number of entries of the pawn hash table. */
+	private static final int PAWN_TABLE_BITS = 13;
 	private static final byte[] PAWN_STORM_VALUES = { 0, 0, 0, 0, 0, 0, 0, 0,
 		0, 0, 0, 0, 0, 0, 0, 0, 6, 6, 6, 6, 6, 6, 6, 6, 0, 0, 0, 0, 0, 0,
 		0, 0, 8, 8, 8, 5, 4, 8, 8, 8, 0, 0, 0, 0, 0, 0, 0, 0, 2, 3, 3, 1,
 		1, 3, 3, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 0, 0, 1, 1, 0, 0, 0,
 		0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
 	// ----------------------End of Constants----------------------
+	// ----------------------Class Variables----------------------
+	/** The pawn hash table shared by every Lorenz, null when the pawn features are always worked out. */
+	private static volatile PawnTable pawn_table = new PawnTable(PAWN_TABLE_BITS, PAWN_FEATURES.length);
+	// ----------------------End of Class Variables----------------------
 	// ----------------------Instance Variables----------------------
 	private Piece[] white_pawns;
 	private Piece[] black_pawns;
@@ -119,6 +138,19 @@ public final class Lorenz {
 	}
 	// ----------------------End of Constructors----------------------
 	// ----------------------Methods----------------------
+	/**
+	 * Sets the pawn hash table shared by every Lorenz.
+	 * @param table The new table, or null to work the pawn features out every time.
+	 */
+	public static void setPawnTable(PawnTable table){
+		pawn_table = table;
+	}
+	/**
+	 * Returns the pawn hash table shared by every Lorenz, null if there is none.
+	 */
+	public static PawnTable getPawnTable(){
+		return pawn_table;
+	}
 	/**
 	 * Retrieves the stored feature value inside the specified index, please see
 	 * the constants for the appropriate indices. If the value is not present, then
@@ -137,17 +169,15 @@ public final class Lorenz {
 		case WHITE_COLUMN_D: case WHITE_COLUMN_E: case WHITE_COLUMN_F: case WHITE_COLUMN_G:
 		case WHITE_COLUMN_H: case BUFFER2: case BLACK_COLUMN_A: case BLACK_COLUMN_B:
 		case BLACK_COLUMN_C: case BLACK_COLUMN_D: case BLACK_COLUMN_E: case BLACK_COLUMN_F:
-		case BLACK_COLUMN_G: case BLACK_COLUMN_H:
-			pawnformation(); break;
+		case BLACK_COLUMN_G: case BLACK_COLUMN_H: case BUFFER3:
+		case WHITE_BACKWARDS: case BLACK_BACKWARDS: case WHITE_ISOLANIS: case BLACK_ISOLANIS:
+		case WHITE_DOUBLED_PAWNS: case BLACK_DOUBLED_PAWNS: case PAWN_ISLANDS:
+		case WHITE_PASSERS: case BLACK_PASSERS:
+			pawnstructure(); break;
 		case SPACE: space(); break;
 		case WHITE_SENTINELS: case BLACK_SENTINELS: sentinelsquares(); break;
-		case WHITE_BACKWARDS: case BLACK_BACKWARDS: case WHITE_ISOLANIS: case BLACK_ISOLANIS:
-			weakpawns(); break;
-		case KING_SAFETY: kingsafety();
-		case WHITE_DOUBLED_PAWNS: case BLACK_DOUBLED_PAWNS: doublepawns(); break;
-		case PAWN_ISLANDS: pawnislands(); break;
+		case KING_SAFETY: kingsafety(); break;
 		case OPEN_FILES: openlines(); break;
-		case WHITE_PASSERS: case BLACK_PASSERS: passedpawns();
 		default: return -1;
 		}
 		return features[featureIndex];
@@ -172,9 +202,11 @@ public final class Lorenz {
 	private void material(){
 		int [][] material = new int [2][6];
 		long w_absolute = 0, b_absolute = 0, w_relative = 0, b_relative = 0;
-		int type, w_count = 0, b_count = 0;
-		for (Piece p : white_pieces) if ((type = p.getType()) != Piece.NULL) material[0][type]++;
-		for (Piece p : black_pieces) if ((type = p.getType()) != Piece.NULL) material[1][type]++;
+		int w_count = 0, b_count = 0;
+		for (byte type = Piece.PAWN; type <= Piece.KING; type++){
+			material[0][type] = Long.bitCount(position.getBitboard(type, Piece.WHITE));
+			material[1][type] = Long.bitCount(position.getBitboard(type, Piece.BLACK));
+		}
 		w_count += material[0][Piece.PAWN]*PAWN_VALUE;
 		w_count += material[0][Piece.ROOK]*ROOK_VALUE;
 		w_count += material[0][Piece.KNIGHT]*KNIGHT_VALUE;
@@ -274,6 +306,27 @@ public final class Lorenz {
 		else bvn_str = 1;
 		features[DYNAMICS] = (bvn_str << 8) + (ops_str << 4) + two_str; 
 	}
+	/**
+	 * Works out all the pawn structure features at once, or copies them from the pawn hash
+	 * table if the same pawns have been seen before, storing them there otherwise.
+	 */
+	private void pawnstructure(){
+		PawnTable table = pawn_table;
+		long key = position.getPawnHash();
+		long[] words = new long[PAWN_FEATURES.length];
+		if (table != null && table.get(key, words)){
+			for (int i = 0; i < PAWN_FEATURES.length; i++) features[PAWN_FEATURES[i]] = words[i];
+			return;
+		}
+		if (features[BUFFER1] == 0) pawnformation();
+		pawnislands();
+		doublepawns();
+		weakpawns();
+		passedpawns();
+		if (table == null) return;
+		for (int i = 0; i < PAWN_FEATURES.length; i++) words[i] = features[PAWN_FEATURES[i]];
+		table.put(key, words);
+	}
 	/**
 	 * Returns the pawn formations by grouping the pawns into columns. This approach follows a 
 	 * radix sort approach. If a specific column is empty, then -1 will be returned to that column.
@@ -379,6 +432,8 @@ public final class Lorenz {
 				p_r,p_c;
 		byte[] diff_weight_2 = Position.RADIALS, diff_weight_1 = Position.KNIGHT_MOVES;
 		boolean w_flag = (white_king >> 4) < 2, b_flag = (black_king >> 4) > 5;
+		long w_pawns = position.getBitboard(Piece.PAWN, Piece.WHITE), 
+				b_pawns = position.getBitboard(Piece.PAWN, Piece.BLACK);
 		byte pos, type;
 		// pawn storm
 		if ((white_king & 7) < 4){
@@ -424,20 +479,20 @@ public final class Lorenz {
 		}
 		// king shield
 		for (byte diff : diff_weight_2) {
-			if (w_flag && (diff >> 4) >= 0 && search(white_pawns, (byte) (white_king + diff)).exists())
+			if (w_flag && (diff >> 4) >= 0 && (w_pawns & Bitboard.bit((byte) (white_king + diff))) != 0)
 				w_shield_Sc += 2;
-			if (b_flag && (diff >> 4) <= 0 && search(black_pawns, (byte) (black_king + diff)).exists())
+			if (b_flag && (diff >> 4) <= 0 && (b_pawns & Bitboard.bit((byte) (black_king + diff))) != 0)
 				b_shield_Sc += 2;
 		}
 		for (byte diff : diff_weight_1) {
-			if (w_flag && (diff >> 4) >= 0 && search(white_pawns, (byte) (white_king + diff)).exists())
+			if (w_flag && (diff >> 4) >= 0 && (w_pawns & Bitboard.bit((byte) (white_king + diff))) != 0)
 				w_shield_Sc += 1;
-			if (b_flag && (diff >> 4) <= 0 && search(black_pawns, (byte) (black_king + diff)).exists())
+			if (b_flag && (diff >> 4) <= 0 && (b_pawns & Bitboard.bit((byte) (black_king + diff))) != 0)
 				b_shield_Sc += 1;
 		}
-		if (w_flag && search(white_pawns, (byte) (white_king + 2 * Position.UP_MOVE)).exists())
+		if (w_flag && (w_pawns & Bitboard.bit((byte) (white_king + 2 * Position.UP_MOVE))) != 0)
 			w_shield_Sc += 1;
-		if (b_flag && search(black_pawns, (byte) (white_king + 2 * Position.DOWN_MOVE)).exists())
+		if (b_flag && (b_pawns & Bitboard.bit((byte) (white_king + 2 * Position.DOWN_MOVE))) != 0)
 			b_shield_Sc += 1;
 		features[KING_SAFETY] = (((w_shield_Sc << 6) + b_shield_Sc) << 44) + 
 				(((w_storm_Sc << 6) + b_storm_Sc) << 32) + ((w_tropism_Sc << 16) + b_tropism_Sc);
@@ -502,27 +557,10 @@ public final class Lorenz {
 	 * square, and the value of a potential exchange. 
 	 */
 	private void sentinelsquares(){
-		boolean isOnMove = position.isWhiteToMove();
-		long [] w_map = new long [0x79], b_map = new long[0x79];
-		boolean [] w_sq = new boolean [64], b_sq = new boolean [64];
-		updateMap (w_map, white_pieces, position, true);
-		updateMap (b_map, black_pieces, position, false);
-		for (int i = 0; i < 0x88; i++){
-			if ((i & 0x88) == 0) {
-				long w = countingSort(w_map[i]), b = countingSort(b_map[i]);
-				int result = doBattle(w, b, isOnMove);
-				if (result == 1) w_sq [(i>>4)*8+(i&7)] = true;
-				if (result == -1) b_sq [(i>>4)*8+(i&7)] = true;
-			}
-		}
-		long w_return = 0, b_return = 0, bin_c = 1;
-		for (int i = 0; i < 64; i++){
-			long construct = bin_c << i;
-			if (w_sq [i]) w_return += construct;
-			if (b_sq [i]) b_return += construct;
-		}
-		features[WHITE_SENTINELS] = w_return;
-		features[BLACK_SENTINELS] = b_return;
+		long [] squares = new long [2];
+		sentinelSquares(position, white_pieces, black_pieces, squares);
+		features[WHITE_SENTINELS] = squares[0];
+		features[BLACK_SENTINELS] = squares[1];
 	}
 	/**
 	 * Determines the major open and half open lines in the game. This includes all files and all
@@ -645,7 +683,37 @@ public final class Lorenz {
 		features[WHITE_PASSERS] = w_string == 0 ? -1 : w_string;
 		features[BLACK_PASSERS] = b_string == 0 ? -1 : b_string;
 	}
+	/**
+	 * Determines the sentinel squares of a position as the WHITE_SENTINELS and BLACK_SENTINELS
+	 * features do, without the rest of a Lorenz, for the evaluation of the search.
+	 * @param p The position.
+	 * @param squares Receives the white sentinel squares at 0 and the black ones at 1.
+	 */
+	public static void sentinelSquares(Position p, long[] squares){
+		sentinelSquares(p, p.getWhitePieces(), p.getBlackPieces(), squares);
+	}
 	// ----------------------Helper Methods----------------------
+	/**
+	 * Determines the sentinel squares of a position from the pieces of each side, see
+	 * sentinelsquares.
+	 */
+	private static void sentinelSquares(Position p, Piece[] white, Piece[] black, long[] squares){
+		boolean isOnMove = p.isWhiteToMove();
+		long [] w_map = new long [0x79], b_map = new long[0x79];
+		updateMap (w_map, white, p, true);
+		updateMap (b_map, black, p, false);
+		long w_return = 0, b_return = 0;
+		for (int i = 0; i < 0x88; i++){
+			if ((i & 0x88) == 0) {
+				long w = countingSort(w_map[i]), b = countingSort(b_map[i]);
+				int result = doBattle(w, b, isOnMove);
+				if (result == 1) w_return |= 1L << ((i>>4)*8+(i&7));
+				if (result == -1) b_return |= 1L << ((i>>4)*8+(i&7));
+			}
+		}
+		squares[0] = w_return;
+		squares[1] = b_return;
+	}
 	/**
 	 * Simulates a potential battle on a square between two specified forces and who is on the
 	 * move.
@@ -727,9 +795,9 @@ public final class Lorenz {
 				}
 				break;
 			case Piece.KNIGHT:
-				for (byte d : Position.KNIGHT_MOVES) {
-					n_loc = c_loc + d;
-					map[(n_loc & 0x88) == 0?n_loc:0x78] = (map[(n_loc & 0x88)==0? n_loc:0x78]<<4)+3;
+				for (long t = Attacks.knight(Bitboard.toIndex(c_loc)); t != 0; t &= t - 1) {
+					n_loc = Bitboard.lowestSquare(t);
+					map[n_loc] = (map[n_loc] << 4) + 3;
 				}
 				break;
 			case Piece.BISHOP:
@@ -786,9 +854,9 @@ public final class Lorenz {
 				}
 				break;
 			case Piece.KING:
-				for (byte d : Position.RADIALS) {
-					n_loc = c_loc + d;
-					map[(n_loc & 0x88)==0?n_loc:0x78]= (map[(n_loc&0x88)==0?n_loc:0x78]<<4) + 0xe;
+				for (long t = Attacks.king(Bitboard.toIndex(c_loc)); t != 0; t &= t - 1) {
+					n_loc = Bitboard.lowestSquare(t);
+					map[n_loc] = (map[n_loc] << 4) + 0xe;
 				}
 				break;
 			}
@@ -820,27 +888,6 @@ public final class Lorenz {
 			return toReturn;
 		}
 	}
-	/**
-	 * Performs a binary search through a sorted map of pieces.
-	 * @param sorted_map A sorted map of pieces.
-	 * @param to_find The location to find.
-	 * @return The piece occupying the specified location.
-	 */
-	private static Piece search (Piece [] sorted_map, byte to_find){
-		int hi = sorted_map.length - 1, lo = 0, mid = (hi+lo) / 2;
-		while (hi >= lo){
-			byte l = sorted_map[mid].getPosition();
-			if (l == to_find) return sorted_map[mid];
-			if (to_find > l){
-				lo = mid+1;
-				mid = (hi + lo) / 2;
-			} else {
-				hi = mid-1;
-				mid = (hi + lo) / 2;
-			}
-		}
-		return Piece.getNullPiece();
-	}
 	/**
 	 * Sorts through a map of pieces by location in increasing order.
 	 * @param map The map to sort.
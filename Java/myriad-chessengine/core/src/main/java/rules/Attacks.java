@@ -0,0 +1,264 @@
+package rules;
+
+/**
+ * A static utility class holding precomputed attack sets, as bitboards indexed by the 0-63
+ * square indices of Bitboard. Knights, kings and pawns use plain lookup tables. Rooks and
+ * bishops use "magic" bitboards: the occupied squares on a slider's lines are multiplied by a
+ * magic number, and the top bits of the product index a table of attack sets. The magic numbers
+ * are found when the class is loaded, by a search from a fixed seed for each rank, so they are
+ * the same on every run.
+ * @author Spork Innovation Technologies
+ */
+public final class Attacks {
+	//----------------------Constants----------------------
+	/**
+	 * The seeds of the magic number search, one for each rank. These are known to find
+	 * working magic numbers within a few hundred tries on every square.
+	 */
+	private static final long[] SEEDS = {728, 10316, 55013, 32803, 12281, 15100, 16645, 255};
+	/** The differences in file and rank of the rook directions. */
+	private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+	/** The differences in file and rank of the bishop directions. */
+	private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+	/** The differences in file and rank of the knight moves. */
+	private static final int[][] KNIGHT_JUMPS =
+		{{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+
+	private static final long[] KNIGHT = new long[64];
+	private static final long[] KING = new long[64];
+	private static final long[] WHITE_PAWN = new long[64];
+	private static final long[] BLACK_PAWN = new long[64];
+	private static final long[][] BETWEEN = new long[64][64];
+	private static final long[][] LINE = new long[64][64];
+
+	private static final long[] ROOK_MASKS = new long[64];
+	private static final long[] ROOK_MAGICS = new long[64];
+	private static final int[] ROOK_SHIFTS = new int[64];
+	private static final long[][] ROOK_TABLE = new long[64][];
+	private static final long[] BISHOP_MASKS = new long[64];
+	private static final long[] BISHOP_MAGICS = new long[64];
+	private static final int[] BISHOP_SHIFTS = new int[64];
+	private static final long[][] BISHOP_TABLE = new long[64][];
+	//----------------------End of Constants----------------------
+
+	static {
+		for (int sq = 0; sq < 64; sq++){
+			KNIGHT[sq] = jumps(sq, KNIGHT_JUMPS);
+			KING[sq] = slide(sq, ROOK_DIRECTIONS, -1L, true) | slide(sq, BISHOP_DIRECTIONS, -1L, true);
+			WHITE_PAWN[sq] = jumps(sq, new int[][]{{-1, 1}, {1, 1}});
+			BLACK_PAWN[sq] = jumps(sq, new int[][]{{-1, -1}, {1, -1}});
+		}
+		for (int sq = 0; sq < 64; sq++){
+			initMagic(sq, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_TABLE);
+			initMagic(sq, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_TABLE);
+		}
+		for (int a = 0; a < 64; a++){
+			for (int b = 0; b < 64; b++){
+				if (a == b) continue;
+				long ab = (1L << a) | (1L << b);
+				if ((rook(a, 0) & (1L << b)) != 0){
+					LINE[a][b] = (rook(a, 0) & rook(b, 0)) | ab;
+					BETWEEN[a][b] = rook(a, ab) & rook(b, ab);
+				} else if ((bishop(a, 0) & (1L << b)) != 0){
+					LINE[a][b] = (bishop(a, 0) & bishop(b, 0)) | ab;
+					BETWEEN[a][b] = bishop(a, ab) & bishop(b, ab);
+				}
+			}
+		}
+	}
+
+	private Attacks(){}
+
+	//----------------------Methods----------------------
+	/**
+	 * Returns the squares a knight attacks.
+	 * @param sq The square index of the knight.
+	 * @return The bitboard of the attacked squares.
+	 */
+	public static long knight(int sq){
+		return KNIGHT[sq];
+	}
+	/**
+	 * Returns the squares a king attacks.
+	 * @param sq The square index of the king.
+	 * @return The bitboard of the attacked squares.
+	 */
+	public static long king(int sq){
+		return KING[sq];
+	}
+	/**
+	 * Returns the squares a pawn attacks, that is the squares it could capture on.
+	 * @param sq The square index of the pawn.
+	 * @param colour The colour of the pawn.
+	 * @return The bitboard of the attacked squares.
+	 */
+	public static long pawn(int sq, byte colour){
+		return colour == Piece.WHITE ? WHITE_PAWN[sq] : BLACK_PAWN[sq];
+	}
+	/**
+	 * Returns the squares a rook attacks, up to and including the first occupied square
+	 * in each direction.
+	 * @param sq The square index of the rook.
+	 * @param occupancy The bitboard of the occupied squares.
+	 * @return The bitboard of the attacked squares.
+	 */
+	public static long rook(int sq, long occupancy){
+		return ROOK_TABLE[sq][(int) (((occupancy & ROOK_MASKS[sq]) * ROOK_MAGICS[sq]) >>> ROOK_SHIFTS[sq])];
+	}
+	/**
+	 * Returns the squares a bishop attacks, up to and including the first occupied square
+	 * in each direction.
+	 * @param sq The square index of the bishop.
+	 * @param occupancy The bitboard of the occupied squares.
+	 * @return The bitboard of the attacked squares.
+	 */
+	public static long bishop(int sq, long occupancy){
+		return BISHOP_TABLE[sq][(int) (((occupancy & BISHOP_MASKS[sq]) * BISHOP_MAGICS[sq]) >>> BISHOP_SHIFTS[sq])];
+	}
+	/**
+	 * Returns the squares a queen attacks.
+	 * @param sq The square index of the queen.
+	 * @param occupancy The bitboard of the occupied squares.
+	 * @return The bitboard of the attacked squares.
+	 */
+	public static long queen(int sq, long occupancy){
+		return rook(sq, occupancy) | bishop(sq, occupancy);
+	}
+	/**
+	 * Returns the squares attacked by a piece of any type other than a pawn.
+	 * @param type The type of the piece, as defined in Piece.
+	 * @param sq The square index of the piece.
+	 * @param occupancy The bitboard of the occupied squares.
+	 * @return The bitboard of the attacked squares.
+	 */
+	public static long of(byte type, int sq, long occupancy){
+		switch (type){
+		case Piece.KNIGHT: return KNIGHT[sq];
+		case Piece.BISHOP: return bishop(sq, occupancy);
+		case Piece.ROOK: return rook(sq, occupancy);
+		case Piece.QUEEN: return queen(sq, occupancy);
+		case Piece.KING: return KING[sq];
+		}
+		return Bitboard.EMPTY;
+	}
+	/**
+	 * Returns the squares strictly between two squares on a common rank, file or diagonal.
+	 * @param a A square index.
+	 * @param b Another square index.
+	 * @return The bitboard of the squares in between, empty if the squares share no line.
+	 */
+	public static long between(int a, int b){
+		return BETWEEN[a][b];
+	}
+	/**
+	 * Returns the whole rank, file or diagonal through two squares.
+	 * @param a A square index.
+	 * @param b Another square index.
+	 * @return The bitboard of the line, empty if the squares share no line.
+	 */
+	public static long line(int a, int b){
+		return LINE[a][b];
+	}
+	//----------------------End of Methods----------------------
+
+	//----------------------Helper Methods----------------------
+	/**
+	 * Returns the squares reached from a square by single steps, such as a knight's jumps.
+	 */
+	private static long jumps(int sq, int[][] steps){
+		long board = Bitboard.EMPTY;
+		for (int[] step : steps){
+			int file = (sq & 7) + step[0], rank = (sq >> 3) + step[1];
+			if (file >= 0 && file < 8 && rank >= 0 && rank < 8)
+				board |= 1L << (rank * 8 + file);
+		}
+		return board;
+	}
+	/**
+	 * Returns the squares a slider attacks by walking its directions, the slow way the
+	 * tables are built from.
+	 * @param occupancy The occupied squares, which stop the slider.
+	 * @param single Whether only one step is taken in each direction.
+	 */
+	private static long slide(int sq, int[][] directions, long occupancy, boolean single){
+		long board = Bitboard.EMPTY;
+		for (int[] d : directions){
+			int file = (sq & 7) + d[0], rank = (sq >> 3) + d[1];
+			while (file >= 0 && file < 8 && rank >= 0 && rank < 8){
+				long bit = 1L << (rank * 8 + file);
+				board |= bit;
+				if (single || (occupancy & bit) != 0) break;
+				file += d[0];
+				rank += d[1];
+			}
+		}
+		return board;
+	}
+	/**
+	 * Returns the squares whose occupancy matters to a slider: its lines without the
+	 * squares on the edge of the board, which cannot block anything further.
+	 */
+	private static long relevantMask(int sq, int[][] directions){
+		long board = Bitboard.EMPTY;
+		for (int[] d : directions){
+			int file = (sq & 7) + d[0], rank = (sq >> 3) + d[1];
+			while (file + d[0] >= 0 && file + d[0] < 8 && rank + d[1] >= 0 && rank + d[1] < 8){
+				board |= 1L << (rank * 8 + file);
+				file += d[0];
+				rank += d[1];
+			}
+		}
+		return board;
+	}
+	/**
+	 * Finds a magic number for a slider on a square and fills its attack table. Random
+	 * sparse numbers are tried until one maps every occupancy of the relevant squares to
+	 * an index holding the right attack set.
+	 */
+	private static void initMagic(int sq, int[][] directions, long[] masks, long[] magics,
+			int[] shifts, long[][] tables){
+		long mask = relevantMask(sq, directions);
+		int bits = Long.bitCount(mask), size = 1 << bits;
+		long[] occupancies = new long[size], attacks = new long[size];
+		long sub = 0;
+		for (int i = 0; i < size; i++){
+			occupancies[i] = sub;
+			attacks[i] = slide(sq, directions, sub, false);
+			sub = (sub - mask) & mask;
+		}
+		long[] table = new long[size];
+		int[] used = new int[size];
+		long[] seed = {SEEDS[sq >> 3]};
+		for (int attempt = 1; ; attempt++){
+			long magic = random(seed) & random(seed) & random(seed);
+			if (Long.bitCount((mask * magic) & 0xff00000000000000L) < 6) continue;
+			boolean fits = true;
+			for (int i = 0; i < size && fits; i++){
+				int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+				if (used[index] != attempt){
+					used[index] = attempt;
+					table[index] = attacks[i];
+				} else if (table[index] != attacks[i]) fits = false;
+			}
+			if (fits){
+				masks[sq] = mask;
+				magics[sq] = magic;
+				shifts[sq] = 64 - bits;
+				tables[sq] = table;
+				return;
+			}
+		}
+	}
+	/**
+	 * A xorshift64* pseudo random number generator, stepping the state held in seed[0].
+	 */
+	private static long random(long[] seed){
+		long s = seed[0];
+		s ^= s >>> 12;
+		s ^= s << 25;
+		s ^= s >>> 27;
+		seed[0] = s;
+		return s * 2685821657736338717L;
+	}
+	//----------------------End of Helper Methods----------------------
+}
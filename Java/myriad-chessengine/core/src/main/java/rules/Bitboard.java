@@ -0,0 +1,65 @@
+package rules;
+
+/**
+ * A static utility class for the bitboard side of Myriad's board representation. A bitboard
+ * is a 64 bit mask with one bit per square, bit 0 being a1, bit 7 being h1 and bit 63 being h8.
+ * The methods here translate between the "0x88" coordinates used by the rest of the engine and
+ * the 0-63 indices used by the bitboards and the mailbox.
+ * @author Spork Innovation Technologies
+ */
+public final class Bitboard {
+	//----------------------Constants----------------------
+	/** The empty bitboard. */
+	public static final long EMPTY = 0L;
+	/** The number of entries in a piece-type/colour bitboard set, 6 types for each colour. */
+	public static final int BOARDS = 12;
+	/** The index offset of the black bitboards inside a bitboard set. */
+	private static final int BLACK_OFFSET = 6;
+	//----------------------End of Constants----------------------
+
+	private Bitboard(){}
+
+	//----------------------Methods----------------------
+	/**
+	 * Converts a 0x88 coordinate into a 0-63 square index.
+	 * @param x88 The 0x88 coordinate, it must be on the board.
+	 * @return The square index of the coordinate.
+	 */
+	public static int toIndex(byte x88){
+		return (x88 + (x88 & 7)) >> 1;
+	}
+	/**
+	 * Converts a 0-63 square index into a 0x88 coordinate.
+	 * @param index The square index.
+	 * @return The 0x88 coordinate of the square.
+	 */
+	public static byte toX88(int index){
+		return (byte) (index + (index & ~7));
+	}
+	/**
+	 * Returns the bitboard with only the specified square set.
+	 * @param x88 The 0x88 coordinate of the square.
+	 * @return The single bit bitboard, or the empty bitboard if the square is off the board.
+	 */
+	public static long bit(byte x88){
+		return (x88 & 0x88) == 0 ? 1L << toIndex(x88) : EMPTY;
+	}
+	/**
+	 * Returns the 0x88 coordinate of the lowest square set in a bitboard.
+	 * @param board A non empty bitboard.
+	 * @return The 0x88 coordinate of the lowest set square.
+	 */
+	public static byte lowestSquare(long board){
+		return toX88(Long.numberOfTrailingZeros(board));
+	}
+	/**
+	 * Returns the index of the bitboard for a piece type and colour inside a bitboard set.
+	 * @param type The type of the piece, as defined by the constants in Piece.
+	 * @param colour The colour of the piece.
+	 * @return The index of the bitboard inside a set of BOARDS bitboards.
+	 */
+	public static int boardIndex(byte type, byte colour){
+		return colour == Piece.WHITE ? type : BLACK_OFFSET + type;
+	}
+	//----------------------End of Methods----------------------
+}
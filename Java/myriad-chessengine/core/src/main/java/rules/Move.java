@@ -27,6 +27,24 @@ public final class Move {
 	/** A constant array storing all special castling moves. */
 	public static final Move[] CASTLE = 
 		{WHITE_K_SIDE_CASTLING,BLACK_K_SIDE_CASTLING,WHITE_Q_SIDE_CASTLING,BLACK_Q_SIDE_CASTLING};
+	/** The packed move standing for "no move", as no legal move packs into zero. */
+	public static final int NO_MOVE = 0;
+	/** The shift of the destination square inside a packed move. */
+	private static final int END_SHIFT = 7;
+	/** The shift of the modifier inside a packed move. */
+	private static final int MODIFIER_SHIFT = 14;
+	/** The shift of the moving piece's type inside a packed move. */
+	private static final int PIECE_SHIFT = 19;
+	/** The shift of the captured piece's type inside a packed move. */
+	private static final int CAPTURED_SHIFT = 22;
+	/** The mask of a square inside a packed move. */
+	private static final int MASK_SQUARE = 0x7f;
+	/** The mask of the modifier inside a packed move. */
+	private static final int MASK_MODIFIER = 0x1f;
+	/** The mask of a piece type inside a packed move. */
+	private static final int MASK_TYPE = 0x7;
+	/** The number of bits used by a packed move, the higher bits are always zero. */
+	public static final int PACKED_BITS = 25;
 	//----------------------End of Constants----------------------
 
 	//----------------------Constructors----------------------
@@ -145,6 +163,83 @@ public final class Move {
 		else if (modifiers == 9) s += "=Q";
 		return s;
 	}
+	//----------------------Packed Moves----------------------
+	// The search does not use Move objects, it uses moves packed into an int:
+	// bits 0-6 hold the starting square, bits 7-13 the ending square, bits 14-18
+	// the modifier, bits 19-21 the type of the moving piece and bits 22-24 the
+	// type of the captured piece plus one, zero meaning nothing is captured.
+	/**
+	 * Packs a move into an int.
+	 * @param startsq The starting square.
+	 * @param endsq The ending square.
+	 * @param modifier The modifier, as described in the constructor.
+	 * @param piece The type of the piece on the starting square.
+	 * @param captured The type of the captured piece, Piece.NULL if nothing is captured.
+	 * @return The packed move.
+	 */
+	public static int encode(byte startsq, byte endsq, byte modifier, byte piece, byte captured){
+		return startsq | (endsq << END_SHIFT) | (modifier << MODIFIER_SHIFT) 
+			| (piece << PIECE_SHIFT) | ((captured + 1) << CAPTURED_SHIFT);
+	}
+	/**
+	 * Gets the starting square of a packed move.
+	 * @param move The packed move.
+	 * @return The starting square.
+	 */
+	public static byte startOf(int move){
+		return (byte) (move & MASK_SQUARE);
+	}
+	/**
+	 * Gets the ending square of a packed move.
+	 * @param move The packed move.
+	 * @return The ending square.
+	 */
+	public static byte endOf(int move){
+		return (byte) ((move >>> END_SHIFT) & MASK_SQUARE);
+	}
+	/**
+	 * Gets the modifier of a packed move.
+	 * @param move The packed move.
+	 * @return The modifier.
+	 */
+	public static byte modifierOf(int move){
+		return (byte) ((move >>> MODIFIER_SHIFT) & MASK_MODIFIER);
+	}
+	/**
+	 * Gets the type of the moving piece of a packed move. For castling this is the rook.
+	 * @param move The packed move.
+	 * @return The type of the moving piece.
+	 */
+	public static byte pieceOf(int move){
+		return (byte) ((move >>> PIECE_SHIFT) & MASK_TYPE);
+	}
+	/**
+	 * Gets the type of the piece captured by a packed move.
+	 * @param move The packed move.
+	 * @return The type of the captured piece, Piece.NULL if nothing is captured.
+	 */
+	public static byte capturedOf(int move){
+		return (byte) (((move >>> CAPTURED_SHIFT) & MASK_TYPE) - 1);
+	}
+	/**
+	 * Checks whether two packed moves describe the same move, in the sense of isEqual.
+	 * @param a A packed move.
+	 * @param b Another packed move.
+	 * @return Whether or not the two moves are the same.
+	 */
+	public static boolean isEqual(int a, int b){
+		return ((a ^ b) & ((1 << MODIFIER_SHIFT) - 1)) == 0 && modifierOf(a) % 10 == modifierOf(b) % 10;
+	}
+	/**
+	 * Unpacks a packed move into a Move object.
+	 * @param move The packed move.
+	 * @return The Move object, or null for NO_MOVE.
+	 */
+	public static Move decode(int move){
+		if (move == NO_MOVE) return null;
+		return new Move(startOf(move), endOf(move), modifierOf(move));
+	}
+	//----------------------End of Packed Moves----------------------
 	// utility methods
 	public static Move toMove(String m_s){
 		if (m_s.equals("O-O (w)")) return WHITE_K_SIDE_CASTLING;
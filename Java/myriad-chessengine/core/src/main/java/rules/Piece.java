@@ -43,6 +43,19 @@ public final class Piece {
 	private static final short ROOK_VALUE = 500;
 	private static final short QUEEN_VALUE = 975;
 	private static final Piece NULL_PIECE = new Piece ((byte)-1, (byte)-1, (byte)0);
+	/** 
+	 * The shared instances of every piece on every square, indexed by colour, type and 0x88
+	 * location. Since pieces are immutable, these can be handed out instead of allocating.
+	 */
+	private static final Piece[] POOL = new Piece[2 * 6 * 0x80];
+	static {
+		for (byte type = PAWN; type <= KING; type++)
+			for (int sq = 0; sq < 0x80; sq++)
+				if ((sq & 0x88) == 0){
+					POOL[poolIndex((byte) sq, type, WHITE)] = new Piece((byte) sq, type, WHITE);
+					POOL[poolIndex((byte) sq, type, BLACK)] = new Piece((byte) sq, type, BLACK);
+				}
+	}
 	//----------------------End of Constants----------------------
 
 	//----------------------Constructors----------------------      
@@ -59,6 +72,19 @@ public final class Piece {
 		this.colour = colour;
 	}
 	//----------------------End of Constructors----------------------
+	/**
+	 * Returns a piece with the given position, type and colour. Pieces on the board are
+	 * taken from a shared pool, so this does not allocate in the middle of a search.
+	 * @param x88loc the 0x88 location of the piece.
+	 * @param ptype the type of the piece (pawn, knight, etc..) according to the constants.
+	 * @param colour the colour of the piece.
+	 * @return A piece as described.
+	 */
+	public static Piece valueOf (byte x88loc, byte ptype, byte colour){
+		if ((x88loc & 0x88) != 0 || ptype < PAWN || ptype > KING || colour == NULL_COL)
+			return new Piece (x88loc, ptype, colour);
+		return POOL[poolIndex(x88loc, ptype, colour)];
+	}
 
 	//----------------------Methods----------------------
 	/**
@@ -103,14 +129,14 @@ public final class Piece {
 	 * @return A new Piece of the same type and colour, but a different location.
 	 */
 	public Piece move(byte difference){
-		return new Piece((byte)(pos+difference),ptype,colour);
+		return valueOf((byte)(pos+difference),ptype,colour);
 	}
 	/**
 	 * Applies a Move m to this object. This returns a new object with the move applied
 	 * to it. This means you must reassign your variable.
 	 */
 	public Piece move (Move m){
-		return new Piece (m.getEndSquare(), ptype, colour);
+		return valueOf (m.getEndSquare(), ptype, colour);
 	}
 	/**
 	 * Returns the "null piece", or a piece that has no defined colour or piece type.
@@ -134,6 +160,14 @@ public final class Piece {
 	}
 	
 	public short getPieceValue(){
+		return getValue(ptype);
+	}
+	/**
+	 * Returns the material value of a piece type, in centipawns.
+	 * @param ptype The type of the piece.
+	 * @return The value, Short.MAX_VALUE for the king and 0 for the null piece.
+	 */
+	public static short getValue(byte ptype){
 		if(ptype == PAWN) return PAWN_VALUE;
 		else if(ptype == ROOK) return ROOK_VALUE;
 		else if(ptype == QUEEN) return QUEEN_VALUE;
@@ -170,5 +204,13 @@ public final class Piece {
 		str+=Move.x88ToString(pos);
 		return str;
 	}
+	//----------------------Helper Methods----------------------
+	/**
+	 * Returns the index of a piece inside the shared pool.
+	 */
+	private static int poolIndex (byte x88loc, byte ptype, byte colour){
+		return ((colour == WHITE ? 0 : 6) + ptype) * 0x80 + x88loc;
+	}
+	//----------------------End of Helper Methods----------------------
 	//----------------------End of Methods----------------------
 }
\ No newline at end of file
@@ -0,0 +1,1684 @@
+package rules;
+
+import java.util.*;
+import eval.Crescent;
+import eval.Lorenz;
+import tables.Zobrist;
+
+/**
+ * Myriad's representation of a particular position. This is a basic class that
+ * underlines the properties of a position, such as the availability of
+ * castling, 50 move rule count, etc.
+ * 
+ * The piece-centric board representation is used, with coordinates used by the
+ * "0x88" algorithm. The piece lists are mirrored by a 64 square mailbox and a
+ * set of bitboards (see Bitboard) so that square lookups are done in constant
+ * time. Note that this is an immutable object as far as makeMove is concerned.
+ * Once an object is created via a constructor it cannot be changed, unless the
+ * mutable doMove and undoMove pair is used. That mode is meant for the search
+ * and the performance test, which work on their own copy of a position.
+ * 
+ * @author Spork Innovation Technologies
+ */
+public final class Position {
+	// ----------------------Instance Variables----------------------
+	/**
+	 * Counts the number of half moves
+	 */
+	private short half_moves;
+	/**
+	 * Counts the number of moves since the last pawn move or capture.
+	 */
+	private byte ply_count;
+	/**
+	 * A flag describing the future availability of white's castling kingside.
+	 * E.g. whether or not the king or rooks have already moved. This does not
+	 * mean that castling is a legal move in <i>this</i> position.
+	 */
+	private boolean w_kingside;
+	/**
+	 * A flag describing the future availability of white's castling queenside.
+	 * E.g. whether or not the king or rooks have already moved. This does not
+	 * mean that castling is a legal move in <i>this</i> position.
+	 */
+	private boolean b_kingside;
+	/**
+	 * A flag describing the future availability of black's castling kingside.
+	 * E.g. whether or not the king or rooks have already moved. This does not
+	 * mean that castling is a legal move in <i>this</i> position.
+	 */
+	private boolean w_queenside;
+	/**
+	 * A flag describing the future availability of black's castling queenside.
+	 * E.g. whether or not the king or rooks have already moved. This does not
+	 * mean that castling is a legal move in <i>this</i> position.
+	 */
+	private boolean b_queenside;
+	/**
+	 * A byte describing the location of the "en passant" square in 0x88
+	 * coordinates. This value is -1 if there is no "en passant" square
+	 * available.
+	 */
+	private byte en_passant_square;
+	/**
+	 * A flag describing whose turn it is to move.
+	 */
+	private boolean is_White_to_Move;
+	/**
+	 * Stores the current location of all the white pieces on the board.
+	 */
+	private Piece[] white_map;
+	/**
+	 * Stores the current location of all the white pieces on the board.
+	 */
+	private Piece[] black_map;
+	/**
+	 * The mailbox, stores the occupier of each square by its 0-63 index. Empty
+	 * squares hold the null piece.
+	 */
+	private Piece[] board;
+	/**
+	 * Stores the index of each occupier inside its own piece map, by the
+	 * 0-63 index of the square it stands on.
+	 */
+	private byte[] indices;
+	/**
+	 * Stores a bitboard for each piece type and colour, indexed by
+	 * Bitboard.boardIndex.
+	 */
+	private long[] piece_boards;
+	/**
+	 * Stores the bitboard of all the squares occupied by white pieces.
+	 */
+	private long white_occupancy;
+	/**
+	 * Stores the bitboard of all the squares occupied by black pieces.
+	 */
+	private long black_occupancy;
+	/**
+	 * Stores all legal moves in the current position, packed as described in
+	 * Move.
+	 */
+	private int[] all_moves;
+	/**
+	 * Stores the check status in the current position.
+	 */
+	private int is_in_check = -1;
+	/**
+	 * Stores the pieces of the side to move pinned to their king, as a
+	 * bitboard. Only valid when pins_known is set.
+	 */
+	private long pinned;
+	/**
+	 * Stores the pieces giving check to the side to move, as a bitboard. Only
+	 * valid when pins_known is set.
+	 */
+	private long checkers;
+	/**
+	 * Whether pinned and checkers have been worked out for the current
+	 * position.
+	 */
+	private boolean pins_known;
+	/**
+	 * Stores the Zobrist hash of the current position. Used for transposition
+	 * tables.
+	 */
+	private long zobrist;
+	/**
+	 * The move that led to the current position, packed as described in
+	 * Move.
+	 */
+	private int prior_move = Move.NO_MOVE;
+	/**
+	 * The Lorenz feature set of the current position, built when it is first
+	 * asked for.
+	 */
+	private Lorenz lz;
+	/**
+	 * The undo stack used by doMove and undoMove. It is only allocated once
+	 * the mutable mode is first used.
+	 */
+	private UndoRecord[] undo_stack;
+	/**
+	 * The number of moves currently recorded on the undo stack.
+	 */
+	private int undo_ply;
+	/**
+	 * The speculative gains of staticExchange, one per capture of the
+	 * exchange. It is only allocated once staticExchange is first used.
+	 */
+	private int[] exchange_gains;
+	/**
+	 * The material of each side, the king left out, in centipawns. Like the
+	 * other evaluation sums below it is kept up to date by setPiece, so it
+	 * follows doMove and undoMove without being recounted.
+	 */
+	private int white_material, black_material;
+	/**
+	 * The sums of the middle game and end game piece-square bonuses of all
+	 * the pieces, from white's side. See Crescent.PieceTables.
+	 */
+	private int middle_game, end_game;
+	/**
+	 * The game phase of the pieces of each side, see
+	 * Crescent.PieceTables.PHASE.
+	 */
+	private int white_phase, black_phase;
+	// ----------------------End of Instance Variables----------------------
+	// ----------------------Constants----------------------
+	/** The distance between 1 up move. */
+	public static final byte UP_MOVE = 0x10;
+	/** The distance between 1 down move. */
+	public static final byte DOWN_MOVE = -0x10;
+	/** The distance between 1 left move. */
+	public static final byte LEFT_MOVE = -0x01;
+	/** The distance between 1 right move. */
+	public static final byte RIGHT_MOVE = 0x01;
+	/** The distance between 1 diagonal left and up move. */
+	public static final byte LEFT_UP_MOVE = 0xf;
+	/** The distance between 1 diagonal right and up move. */
+	public static final byte RIGHT_UP_MOVE = 0x11;
+	/** The distance between 1 diagonal left and down move. */
+	public static final byte LEFT_DOWN_MOVE = -0x11;
+	/** The distance between 1 diagonal right and down move. */
+	public static final byte RIGHT_DOWN_MOVE = -0xf;
+	/** The storage for the differences of all knight moves. */
+	public static final byte[] KNIGHT_MOVES = { 0x21, 0x1f, -0x1f, -0x21, 0x12,
+			-0xe, 0xe, -0x12 };
+	/** The storage for the differences of all diagonal moves. */
+	public static final byte[] DIAGONALS = { 0x11, -0x11, 0xf, -0xf };
+	/** The storage for the differences of all horizontal/vertical moves. */
+	public static final byte[] HORIZONTALS = { 0x10, -0x10, 0x1, -0x1 };
+	/** The storage for the differences of all radial moves. */
+	public static final byte[] RADIALS = { 0x11, -0xf, 0xf, -0x11, 0x10, -0x01,
+			-0x10, 0x01 };
+	/** The storage for the difference of all pawn capture moves for white. */
+	public static final byte[] WHITE_PAWN_ATTACK = { 0xf, 0x11 };
+	/** The storage for the difference of all pawn capture moves for black. */
+	public static final byte[] BLACK_PAWN_ATTACK = { -0x11, -0xf };
+	/**
+	 * The signal given by the gameResult() method that means a draw (or
+	 * stalemate).
+	 */
+	public static final int DRAW = 0;
+	/** The signal given by the gameResult() method that means white wins. */
+	public static final int WHITE_WINS = 1;
+	/** The signal given by the gameResult() method that means black wins. */
+	public static final int BLACK_WINS = -1;
+	/**
+	 * The signal given by the gameResult() method that means no result has been
+	 * reached yet.
+	 */
+	public static final int NO_RESULT = -2;
+	/** The maximum number of moves that can be taken back with undoMove. */
+	public static final int MAX_PLY = 256;
+	/**
+	 * The most moves generateMoves can write for one position. No legal chess
+	 * position has more than 218.
+	 */
+	public static final int MAX_MOVES = 256;
+	/**
+	 * The piece type tried after each type when looking for the least
+	 * valuable attacker, indexed by type: pawn, knight, bishop, rook, queen
+	 * and king.
+	 */
+	private static final byte[] NEXT_ATTACKER = { Piece.KNIGHT, Piece.QUEEN,
+			Piece.BISHOP, Piece.ROOK, Piece.KING, Piece.KING };
+	/** The castling bits, in the order of the castling rights array. */
+	private static final int W_KINGSIDE = 1, B_KINGSIDE = 2, W_QUEENSIDE = 4,
+			B_QUEENSIDE = 8;
+
+	// ----------------------End of Constants----------------------
+
+	// ----------------------Constructors----------------------
+	/**
+	 * Constructor: Constructs a board objects with the following parameters:
+	 * 
+	 * @param fifty_move
+	 *            The 50 move rule counter.
+	 * @param three_fold
+	 *            The 3 fold repetition counter.
+	 * @param epsq
+	 *            The en passant square.
+	 * @param castling_rights
+	 *            An array storing the castling rights, with index 0 being white
+	 *            to the kingside, 1 being black to the kingside, 2 being white
+	 *            to the queenside, 3 being black to the queenside.
+	 * @param whiteturn
+	 *            If it is currently white to move.
+	 * @param w_map
+	 *            An array containing all the current white pieces.
+	 * @param b_map
+	 *            An array containing all the current black pieces.
+	 */
+	public Position(byte fifty_move, byte epsq, boolean[] castling_rights,
+			boolean whiteturn, Piece[] w_map, Piece[] b_map, short h_moves) {
+		ply_count = fifty_move;
+		half_moves = h_moves;
+		en_passant_square = epsq;
+		w_kingside = castling_rights[0];
+		b_kingside = castling_rights[1];
+		w_queenside = castling_rights[2];
+		b_queenside = castling_rights[3];
+		white_map = w_map;
+		black_map = b_map;
+		is_White_to_Move = whiteturn;
+		fillBoards();
+		zobrist = Zobrist.createinitialhash(white_map, black_map,
+				castling_rights, en_passant_square, is_White_to_Move);
+	}
+
+	/**
+	 * Default Constructor: Constructs a Position object with the same settings
+	 * as the initial start-up position.
+	 */
+	public Position() {
+		ply_count = 0;
+		half_moves = 0;
+		en_passant_square = -1;
+		w_kingside = true;
+		b_kingside = true;
+		w_queenside = true;
+		b_queenside = true;
+		is_White_to_Move = true;
+		white_map = new Piece[16];
+		black_map = new Piece[16];
+		for (int i = 0; i < 8; i++) {
+			white_map[i] = new Piece((byte) (0x10 + i), Piece.PAWN, Piece.WHITE);
+			black_map[i] = new Piece((byte) (0x60 + i), Piece.PAWN, Piece.BLACK);
+		}
+		for (int i = 8; i < 13; i++) {
+			white_map[i] = new Piece((byte) (0x00 + i - 8), (byte) (Piece.ROOK
+					+ i - 8), Piece.WHITE);
+			black_map[i] = new Piece((byte) (0x70 + i - 8), (byte) (Piece.ROOK
+					+ i - 8), Piece.BLACK);
+		}
+		for (int i = 13; i < 16; i++) {
+			white_map[i] = new Piece((byte) (0x05 + i - 13),
+					(byte) (Piece.BISHOP - i + 13), Piece.WHITE);
+			black_map[i] = new Piece((byte) (0x75 + i - 13),
+					(byte) (Piece.BISHOP - i + 13), Piece.BLACK);
+		}
+		Piece temp = white_map[12];
+		white_map[12] = white_map[0];
+		white_map[0] = temp;
+		temp = black_map[12];
+		black_map[12] = black_map[0];
+		black_map[0] = temp;
+		fillBoards();
+		zobrist = Zobrist.createinitialhash(white_map, black_map,
+				getCastlingRights(), en_passant_square, is_White_to_Move);
+	}
+
+	/**
+	 * Constructor: Constructs an independent copy of another position. The
+	 * undo stack of the original is not copied.
+	 * 
+	 * @param p
+	 *            The position to copy.
+	 */
+	private Position(Position p) {
+		ply_count = p.ply_count;
+		half_moves = p.half_moves;
+		en_passant_square = p.en_passant_square;
+		w_kingside = p.w_kingside;
+		b_kingside = p.b_kingside;
+		w_queenside = p.w_queenside;
+		b_queenside = p.b_queenside;
+		is_White_to_Move = p.is_White_to_Move;
+		white_map = Arrays.copyOf(p.white_map, p.white_map.length);
+		black_map = Arrays.copyOf(p.black_map, p.black_map.length);
+		board = Arrays.copyOf(p.board, p.board.length);
+		indices = Arrays.copyOf(p.indices, p.indices.length);
+		piece_boards = Arrays.copyOf(p.piece_boards, p.piece_boards.length);
+		white_occupancy = p.white_occupancy;
+		black_occupancy = p.black_occupancy;
+		white_material = p.white_material;
+		black_material = p.black_material;
+		middle_game = p.middle_game;
+		end_game = p.end_game;
+		white_phase = p.white_phase;
+		black_phase = p.black_phase;
+		zobrist = p.zobrist;
+		prior_move = p.prior_move;
+	}
+
+	// ----------------------End of Constructors----------------------
+
+	// ----------------------Methods----------------------
+	/**
+	 * Gets the Zobrist hash of this Position object.
+	 * 
+	 * @return the Zobrist hash of this Position object.
+	 */
+	public long getHash() {
+		return zobrist;
+	}
+
+	/**
+	 * Gets the Zobrist hash of the pawns of this Position object, which only
+	 * changes when a pawn moves, is captured or promotes. Used for the pawn
+	 * hash table of Lorenz. It is worked out from the pawn bitboards when
+	 * asked for, the search itself never needs it.
+	 * 
+	 * @return the Zobrist hash of the pawns.
+	 */
+	public long getPawnHash() {
+		long hash = 0;
+		for (long b = getBitboard(Piece.PAWN, Piece.WHITE); b != 0; b &= b - 1)
+			hash = Zobrist.xorout(hash, Bitboard.lowestSquare(b), Piece.PAWN, Piece.WHITE);
+		for (long b = getBitboard(Piece.PAWN, Piece.BLACK); b != 0; b &= b - 1)
+			hash = Zobrist.xorout(hash, Bitboard.lowestSquare(b), Piece.PAWN, Piece.BLACK);
+		return hash;
+	}
+
+	/**
+	 * Gets the move that led to this Position object.
+	 * 
+	 * @return the move that led to this position, null if it is not known.
+	 */
+	public Move getPriorMove() {
+		return Move.decode(prior_move);
+	}
+
+	/**
+	 * Gets the move that led to this Position object, packed as described in
+	 * Move.
+	 * 
+	 * @return the packed move that led to this position, Move.NO_MOVE if it
+	 *         is not known.
+	 */
+	public int getPriorMoveCode() {
+		return prior_move;
+	}
+
+	/**
+	 * Gets the move played before the move that led to this Position object,
+	 * packed as described in Move. It is only known while that move is on
+	 * the undo stack.
+	 * 
+	 * @return the packed move played two plies ago, Move.NO_MOVE if it is not
+	 *         known.
+	 */
+	public int getEarlierMoveCode() {
+		return undo_ply > 0 ? undo_stack[undo_ply - 1].prior_move : Move.NO_MOVE;
+	}
+
+	/**
+	 * Gets the castling rights of a board in the order specified in the
+	 * Constructor.
+	 * 
+	 * @returns The castling rights of this position.
+	 */
+	public boolean[] getCastlingRights() {
+		boolean[] toReturn = { w_kingside, b_kingside, w_queenside, b_queenside };
+		return toReturn;
+	}
+
+	/**
+	 * Returns <i>this</i> position's current 50 move rule counter.
+	 * 
+	 * @return The 50 move rule counter.
+	 */
+	public byte get50MoveCount() {
+		return ply_count;
+	}
+
+	/**
+	 * Returns the "en passant-able" square using 0x88 cooridinates in
+	 * <i>this</i> position.
+	 * 
+	 * @return The en passant square in 0x88 coordinates.
+	 */
+	public byte getEnPassantSquare() {
+		return en_passant_square;
+	}
+	/**
+	 * Returns <i>this</i> position's half move clock.
+	 * 
+	 * @return The Half moves clock
+	 */
+	public short getHalfMoves(){
+		return half_moves;
+	}
+
+	/**
+	 * Returns whether or not if it is white to play in <i>this</i> position.
+	 * 
+	 * @return A boolean signalling whether or not it is white's turn.
+	 */
+	public boolean isWhiteToMove() {
+		return is_White_to_Move;
+	}
+
+	/**
+	 * Returns the Lorenz feature set of <i>this</i> position. The features are
+	 * built on the first call and are kept until the position changes.
+	 * 
+	 * @return The Lorenz object describing this position.
+	 */
+	public Lorenz getLorenz() {
+		if (lz == null)
+			lz = new Lorenz(this);
+		return lz;
+	}
+
+	/**
+	 * Gets the material of one side, the king left out.
+	 * 
+	 * @param white
+	 *            Whether to count white's material or black's.
+	 * @return the material in centipawns.
+	 */
+	public int getMaterial(boolean white) {
+		return white ? white_material : black_material;
+	}
+
+	/**
+	 * Gets the sum of the middle game piece-square bonuses of all the pieces.
+	 * 
+	 * @return the sum in centipawns, from white's side.
+	 */
+	public int getMiddleGameScore() {
+		return middle_game;
+	}
+
+	/**
+	 * Gets the sum of the end game piece-square bonuses of all the pieces.
+	 * 
+	 * @return the sum in centipawns, from white's side.
+	 */
+	public int getEndGameScore() {
+		return end_game;
+	}
+
+	/**
+	 * Gets the game phase of the pieces of one side, 0 once it has nothing
+	 * but pawns and its king left.
+	 * 
+	 * @param white
+	 *            Whether to count white's pieces or black's.
+	 * @return the phase, see Crescent.PieceTables.PHASE.
+	 */
+	public int getPhase(boolean white) {
+		return white ? white_phase : black_phase;
+	}
+
+	/**
+	 * Returns an independent copy of <i>this</i> position. Use this to get a
+	 * position that can be changed with doMove and undoMove without
+	 * disturbing the original.
+	 * 
+	 * @return A copy of this position.
+	 */
+	public Position copy() {
+		Position p = new Position(this);
+		p.all_moves = all_moves;
+		p.is_in_check = is_in_check;
+		return p;
+	}
+
+	/**
+	 * Checks if in the current position, whether or not the king is in check.
+	 * 
+	 * @param look_in_storage
+	 *            whether the decision can be made by the stored result
+	 * @return true if the king is in check, false otherwise.
+	 */
+	public boolean isInCheck(boolean storage) {
+		if (storage && is_in_check != -1)
+			return (is_in_check == 1);
+		byte o_col = is_White_to_Move ? Piece.BLACK : Piece.WHITE, k_loc = (is_White_to_Move ? white_map
+				: black_map)[0].getPosition();
+		boolean check = attackersOf(k_loc, o_col, getOccupancy()) != 0;
+		if (storage)
+			is_in_check = check ? 1 : 0;
+		return check;
+	}
+
+	/**
+	 * Returns an array containing all the white pieces.
+	 * 
+	 * @return an array containing all the white pieces.
+	 */
+	public Piece[] getWhitePieces() {
+		return Arrays.copyOf(white_map, white_map.length);
+	}
+
+	/**
+	 * Returns an array containing all the black pieces.
+	 * 
+	 * @return an array containing all the black pieces.
+	 */
+	public Piece[] getBlackPieces() {
+		return Arrays.copyOf(black_map, black_map.length);
+	}
+
+	/**
+	 * Returns the bitboard of all the squares occupied by a type of piece.
+	 * 
+	 * @param type
+	 *            The type of the piece, as defined in Piece.
+	 * @param colour
+	 *            The colour of the piece.
+	 * @return the bitboard of the specified pieces.
+	 */
+	public long getBitboard(byte type, byte colour) {
+		return piece_boards[Bitboard.boardIndex(type, colour)];
+	}
+
+	/**
+	 * Returns the bitboard of all the squares occupied by one side.
+	 * 
+	 * @param colour
+	 *            The colour of the side.
+	 * @return the bitboard of the squares occupied by the specified side.
+	 */
+	public long getOccupancy(byte colour) {
+		return colour == Piece.WHITE ? white_occupancy : black_occupancy;
+	}
+
+	/**
+	 * Returns the bitboard of all the occupied squares.
+	 * 
+	 * @return the bitboard of all the occupied squares.
+	 */
+	public long getOccupancy() {
+		return white_occupancy | black_occupancy;
+	}
+
+	/**
+	 * Generates all the moves possible in this Position object, as Move
+	 * objects. The search should use getMoves or generateMoves instead, which
+	 * do not create any objects per move.
+	 * 
+	 * @return An array containing all the legal moves in this position.
+	 */
+	public Move[] generateAllMoves() {
+		int[] moves = getMoves();
+		Move[] all = new Move[moves.length];
+		for (int i = 0; i < moves.length; i++)
+			all[i] = Move.decode(moves[i]);
+		return all;
+	}
+
+	/**
+	 * Returns all the legal moves in this position, packed as described in
+	 * Move. The moves are generated once and kept, so the returned array must
+	 * not be changed. The search hands out its moves in order with a
+	 * MovePicker instead.
+	 * 
+	 * @return An array containing all the legal moves in this position.
+	 */
+	public int[] getMoves() {
+		if (all_moves == null) {
+			int[] list = new int[MAX_MOVES];
+			all_moves = Arrays.copyOf(list, generateMoves(list, 0));
+		}
+		return all_moves;
+	}
+
+	/**
+	 * Generates all the legal moves in this position into a list, packed as
+	 * described in Move. This method does so by generating the pseudo-legal
+	 * moves and keeping the ones that pass isLegal. The moves are not ordered
+	 * and are not kept by the position, so the list can be one preallocated
+	 * per ply.
+	 * 
+	 * @param list
+	 *            The list to write the moves into, it must have room for
+	 *            MAX_MOVES moves after start.
+	 * @param start
+	 *            The index of the first move written.
+	 * @return The index after the last move written.
+	 */
+	public int generateMoves(int[] list, int start) {
+		int end = generatePseudoLegalMoves(list, start), n = start;
+		for (int i = start; i < end; i++) {
+			if (isLegal(list[i]))
+				list[n++] = list[i];
+		}
+		return n;
+	}
+
+	/**
+	 * Generates all the pseudo-legal moves in this position into a list,
+	 * captures and promotions first. Pseudo-legal moves follow the rules of
+	 * how the pieces move, but may leave the king in check or castle through
+	 * check; isLegal must be asked before such a move is made.
+	 * 
+	 * @param list
+	 *            The list to write the moves into, it must have room for
+	 *            MAX_MOVES moves after start.
+	 * @param start
+	 *            The index of the first move written.
+	 * @return The index after the last move written.
+	 */
+	public int generatePseudoLegalMoves(int[] list, int start) {
+		return generateQuiets(list, generateCaptures(list, start));
+	}
+
+	/**
+	 * Generates the pseudo-legal captures and promotions of this position
+	 * into a list, including en passant and promotions that do not capture.
+	 * 
+	 * @param list
+	 *            The list to write the moves into.
+	 * @param start
+	 *            The index of the first move written.
+	 * @return The index after the last move written.
+	 */
+	public int generateCaptures(int[] list, int start) {
+		Piece[] current_map = is_White_to_Move ? white_map : black_map;
+		byte c_col = is_White_to_Move ? Piece.WHITE : Piece.BLACK, promotion_row = (byte) (is_White_to_Move ? 7
+				: 0);
+		byte[] attack = is_White_to_Move ? WHITE_PAWN_ATTACK
+				: BLACK_PAWN_ATTACK;
+		int n = start;
+		for (Piece current_piece : current_map) {
+			byte c_pos = current_piece.getPosition(), next_pos;
+			switch (current_piece.getType()) {
+			case Piece.NULL:
+				return n;
+			case Piece.PAWN:
+				next_pos = (byte) (c_pos + c_col * UP_MOVE);
+				if (next_pos >> 4 == promotion_row
+						&& !getSquareOccupier(next_pos).exists())
+					n = addPromotions(list, n, c_pos, next_pos, (byte) 6);
+				for (byte atk : attack) {
+					next_pos = (byte) (c_pos + atk);
+					if ((next_pos & 0x88) != 0)
+						continue;
+					if (next_pos == en_passant_square) {
+						n = addMove(list, n, c_pos,
+								(byte) (next_pos - UP_MOVE * c_col), (byte) 5);
+					} else if (getSquareOccupier(next_pos).getColour() == -c_col) {
+						if (next_pos >> 4 == promotion_row)
+							n = addPromotions(list, n, c_pos, next_pos,
+									(byte) 16);
+						else
+							n = addMove(list, n, c_pos, next_pos, (byte) 10);
+					}
+				}
+				break;
+			case Piece.ROOK:
+			case Piece.KNIGHT:
+			case Piece.BISHOP:
+			case Piece.QUEEN:
+				n = generatePieceMoves(current_piece, true, list, n);
+				break;
+			case Piece.KING:
+				n = generatePieceMoves(current_piece, true, list, n);
+				break;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Generates the pseudo-legal moves of this position that neither capture
+	 * nor promote into a list, including castling.
+	 * 
+	 * @param list
+	 *            The list to write the moves into.
+	 * @param start
+	 *            The index of the first move written.
+	 * @return The index after the last move written.
+	 */
+	public int generateQuiets(int[] list, int start) {
+		Piece[] current_map = is_White_to_Move ? white_map : black_map;
+		byte c_col = is_White_to_Move ? Piece.WHITE : Piece.BLACK, promotion_row = (byte) (is_White_to_Move ? 7
+				: 0), start_row = (byte) (is_White_to_Move ? 1 : 6);
+		int n = start;
+		for (Piece current_piece : current_map) {
+			byte c_pos = current_piece.getPosition(), next_pos;
+			switch (current_piece.getType()) {
+			case Piece.NULL:
+				return n;
+			case Piece.PAWN:
+				next_pos = (byte) (c_pos + c_col * UP_MOVE);
+				if (next_pos >> 4 == promotion_row
+						|| getSquareOccupier(next_pos).exists())
+					break;
+				n = addMove(list, n, c_pos, next_pos, (byte) 0);
+				next_pos = (byte) (next_pos + c_col * UP_MOVE);
+				if (c_pos >> 4 == start_row
+						&& !getSquareOccupier(next_pos).exists())
+					n = addMove(list, n, c_pos, next_pos, (byte) 20);
+				break;
+			case Piece.ROOK:
+			case Piece.KNIGHT:
+			case Piece.BISHOP:
+			case Piece.QUEEN:
+				n = generatePieceMoves(current_piece, false, list, n);
+				break;
+			case Piece.KING:
+				n = generatePieceMoves(current_piece, false, list, n);
+				boolean[] castle_rights = getCastlingRights();
+				// only the squares between king and rook are checked here,
+				// isLegal checks the squares the king passes are not attacked
+				for (int i = is_White_to_Move ? 0 : 1; i < 4; i += 2) {
+					Move castle = Move.CASTLE[i];
+					if (castle_rights[i]
+							&& (getOccupancy() & between(c_pos,
+									castle.getStartSquare())) == 0)
+						n = addMove(list, n, castle.getStartSquare(),
+								castle.getEndSquare(), castle.getModifier());
+				}
+				break;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Checks whether a pseudo-legal move of this position is legal, that is
+	 * whether it leaves its own king out of check. The pinned pieces and the
+	 * pieces giving check are worked out once per position, the first time
+	 * this is called, so most moves are decided without being made.
+	 * 
+	 * @param m
+	 *            A packed move, generated by generatePseudoLegalMoves for this
+	 *            position.
+	 * @return true if the move is legal, false otherwise.
+	 */
+	public boolean isLegal(int m) {
+		if (!pins_known)
+			findPins();
+		byte start = Move.startOf(m), end = Move.endOf(m), mod = Move
+				.modifierOf(m), o_col = is_White_to_Move ? Piece.BLACK
+				: Piece.WHITE;
+		byte king_sq = (is_White_to_Move ? white_map : black_map)[0]
+				.getPosition();
+		if (mod >= 1 && mod <= 4) {
+			// the king may not castle out of, through or into check
+			if (checkers != 0)
+				return false;
+			byte diff = mod <= 2 ? RIGHT_MOVE : LEFT_MOVE;
+			return !isSquareAttacked((byte) (king_sq + diff), o_col)
+					&& !isSquareAttacked((byte) (king_sq + 2 * diff), o_col);
+		} else if (mod == 5) {
+			// en passant takes two pieces off a line at once, so just try it
+			doMove(m);
+			boolean legal = attackersOf(king_sq, o_col, getOccupancy()) == 0;
+			undoMove();
+			return legal;
+		} else if (start == king_sq) {
+			// the king itself must not hide a slider's attack on its new square
+			return attackersOf(end, o_col, getOccupancy() & ~Bitboard.bit(start)) == 0;
+		}
+		if (checkers != 0) {
+			// a single check must be captured or blocked, a double check cannot
+			if ((checkers & (checkers - 1)) != 0)
+				return false;
+			byte checker = Bitboard.lowestSquare(checkers);
+			if (((checkers | between(king_sq, checker)) & Bitboard.bit(end)) == 0)
+				return false;
+		}
+		if ((pinned & Bitboard.bit(start)) == 0)
+			return true;
+		// a pinned piece may only move along the line of the pin
+		return (Attacks.line(Bitboard.toIndex(king_sq), Bitboard.toIndex(start)) & Bitboard
+				.bit(end)) != 0;
+	}
+
+	/**
+	 * Checks whether a packed move, such as one from the transposition table
+	 * or a killer move, is a pseudo-legal move of this position, exactly as
+	 * generatePseudoLegalMoves would pack it.
+	 * 
+	 * @param m
+	 *            A packed move.
+	 * @return true if the move is pseudo-legal in this position.
+	 */
+	public boolean isPseudoLegal(int m) {
+		byte start = Move.startOf(m), end = Move.endOf(m), mod = Move
+				.modifierOf(m), type = Move.pieceOf(m), c_col = is_White_to_Move ? Piece.WHITE
+				: Piece.BLACK;
+		if (((start | end) & 0x88) != 0)
+			return false;
+		Piece mover = getSquareOccupier(start), victim = getSquareOccupier(end);
+		if (mover.getColour() != c_col || mover.getType() != type
+				|| victim.getColour() == c_col)
+			return false;
+		if (mod >= 1 && mod <= 4) {
+			Move castle = Move.CASTLE[mod - 1];
+			byte king_sq = (is_White_to_Move ? white_map : black_map)[0]
+					.getPosition();
+			return castle.getStartSquare() == start
+					&& castle.getEndSquare() == end
+					&& getCastlingRights()[mod - 1]
+					&& (getOccupancy() & between(king_sq, start)) == 0;
+		}
+		if (Move.capturedOf(m) != victim.getType())
+			return false;
+		if (type == Piece.PAWN) {
+			byte[] attack = is_White_to_Move ? WHITE_PAWN_ATTACK
+					: BLACK_PAWN_ATTACK;
+			byte advance = (byte) (c_col * UP_MOVE);
+			boolean promotes = end >> 4 == (is_White_to_Move ? 7 : 0);
+			if (mod == 5)
+				return (byte) (end + advance) == en_passant_square
+						&& (start >> 4) == (end >> 4)
+						&& Math.abs((start & 7) - (end & 7)) == 1;
+			if (victim.exists()) {
+				if (end - start != attack[0] && end - start != attack[1])
+					return false;
+				return promotes ? mod >= 16 && mod <= 19 : mod == 10;
+			}
+			if (mod == 20)
+				return start >> 4 == (is_White_to_Move ? 1 : 6)
+						&& end == start + 2 * advance
+						&& !getSquareOccupier((byte) (start + advance))
+								.exists();
+			return end == start + advance
+					&& (promotes ? mod >= 6 && mod <= 9 : mod == 0);
+		}
+		if (mod != (victim.exists() ? 10 : 0))
+			return false;
+		return (Attacks.of(type, Bitboard.toIndex(start), getOccupancy()) & Bitboard
+				.bit(end)) != 0;
+	}
+
+	/**
+	 * Checks whether a square is attacked by a side.
+	 * 
+	 * @param sq
+	 *            The square to check.
+	 * @param colour
+	 *            The colour of the attacking side.
+	 * @return true if a piece of the specified colour attacks the square.
+	 */
+	public boolean isSquareAttacked(byte sq, byte colour) {
+		return attackersOf(sq, colour, getOccupancy()) != 0;
+	}
+
+	/**
+	 * Returns the static exchange evaluation of a packed move: the material
+	 * the side to move wins, or loses, on the end square when both sides go
+	 * on capturing there with their least valuable piece, each side stopping
+	 * as soon as going on would lose. This is the swap-off of
+	 * Lorenz.doBattle, played out from an actual capture, and the sliders
+	 * lined up behind a piece that captures join the exchange after it. An
+	 * en passant capture is played out on the square the pawn lands on.
+	 * 
+	 * @param m
+	 *            The packed capture or promotion.
+	 * @return the material won by the move, in centipawns, negative if it
+	 *         loses material.
+	 */
+	public int staticExchange(int m) {
+		if (exchange_gains == null)
+			exchange_gains = new int[32];
+		int[] gain = exchange_gains;
+		byte start = Move.startOf(m), end = Move.endOf(m), mod = Move.modifierOf(m),
+				captured = Move.capturedOf(m);
+		long occ = getOccupancy() & ~Bitboard.bit(start);
+		if (mod == 5) {
+			// the end square of en passant is the pawn taken, beside the pawn taking
+			occ &= ~Bitboard.bit(end);
+			end = (byte) (end + (is_White_to_Move ? UP_MOVE : DOWN_MOVE));
+		}
+		byte promoted = mod >= 6 && mod <= 9 ? (byte) (mod - 5)
+				: mod >= 16 && mod <= 19 ? (byte) (mod - 15) : Piece.NULL;
+		// the value of the piece standing on the end square, about to be taken
+		int on_square = Piece.getValue(promoted == Piece.NULL ? Move.pieceOf(m) : promoted);
+		gain[0] = Piece.getValue(captured);
+		if (promoted != Piece.NULL)
+			gain[0] += on_square - Piece.getValue(Piece.PAWN);
+		byte side = is_White_to_Move ? Piece.BLACK : Piece.WHITE;
+		int d = 0;
+		while (true) {
+			d++;
+			gain[d] = on_square - gain[d - 1];
+			// neither side gains by going on
+			if (Math.max(-gain[d - 1], gain[d]) < 0 || d == gain.length - 1)
+				break;
+			long attackers = attackersOf(end, side, occ) & occ;
+			if (attackers == 0)
+				break;
+			byte type = Piece.PAWN;
+			while ((attackers & getBitboard(type, side)) == 0)
+				type = NEXT_ATTACKER[type];
+			long from = attackers & getBitboard(type, side);
+			occ &= ~(from & -from);
+			on_square = Piece.getValue(type);
+			side = (byte) -side;
+		}
+		while (--d > 0)
+			gain[d - 1] = -Math.max(-gain[d - 1], gain[d]);
+		return gain[0];
+	}
+
+	/**
+	 * Packs a move made on this position into an int, as described in Move.
+	 * The types of the moving and captured pieces are looked up on the
+	 * mailbox.
+	 * 
+	 * @param m
+	 *            The move to pack.
+	 * @return The packed move, or Move.NO_MOVE if m is null.
+	 */
+	public int encode(Move m) {
+		if (m == null)
+			return Move.NO_MOVE;
+		return encode(m.getStartSquare(), m.getEndSquare(), m.getModifier());
+	}
+
+
+	/**
+	 * Makes a move on the position. Since Position objects are immutable, one
+	 * must reassign the variable. e.g. <code>p = p.makeMove(m)</code>.
+	 * 
+	 * @param m
+	 *            The move to make on the current Position.
+	 * @return A new position with the move made on it.
+	 */
+	public Position makeMove(Move m) {
+		Position child = new Position(this);
+		child.applyMove(encode(m), null);
+		return child;
+	}
+
+	/**
+	 * Makes a move on <i>this</i> position, in place. Unlike makeMove, no new
+	 * Position is created. The captured piece, castling rights, en passant
+	 * square, 50 move rule counter and Zobrist hash are kept on a fixed size
+	 * undo stack, so the move can be taken back with undoMove. At most MAX_PLY
+	 * moves can be outstanding.
+	 * 
+	 * @param m
+	 *            The move to make on the current Position.
+	 */
+	public void doMove(Move m) {
+		doMove(encode(m));
+	}
+
+	/**
+	 * Makes a packed move on <i>this</i> position, in place, as doMove(Move)
+	 * does.
+	 * 
+	 * @param m
+	 *            The packed move to make on the current Position.
+	 */
+	public void doMove(int m) {
+		applyMove(m, pushRecord());
+	}
+
+	/**
+	 * Passes the move to the other side, in place, for the null move pruning
+	 * of a search. Any en passant capture is lost. The null move is kept on
+	 * the undo stack like a move, and taken back with undoNullMove. It must
+	 * not be made by a side in check.
+	 */
+	public void doNullMove() {
+		pushRecord();
+		zobrist = Zobrist.xorside(Zobrist.xorepsq(zobrist, en_passant_square,
+				(byte) -1));
+		en_passant_square = -1;
+		ply_count++;
+		half_moves++;
+		is_White_to_Move = !is_White_to_Move;
+		prior_move = Move.NO_MOVE;
+		all_moves = null;
+		// the side that passed was not in check, so its opponent is not either
+		is_in_check = 0;
+		pins_known = false;
+		lz = null;
+	}
+
+	/**
+	 * Takes back the null move made last with doNullMove.
+	 */
+	public void undoNullMove() {
+		UndoRecord record = undo_stack[--undo_ply];
+		is_White_to_Move = !is_White_to_Move;
+		en_passant_square = record.en_passant_square;
+		ply_count = record.ply_count;
+		half_moves--;
+		zobrist = record.zobrist;
+		prior_move = record.prior_move;
+		all_moves = record.all_moves;
+		is_in_check = record.is_in_check;
+		pinned = record.pinned;
+		checkers = record.checkers;
+		pins_known = record.pins_known;
+		lz = record.lz;
+	}
+
+	/**
+	 * Saves the state a move changes on the undo stack, allocating the stack
+	 * the first time.
+	 * 
+	 * @return the undo record, which applyMove completes.
+	 */
+	private UndoRecord pushRecord() {
+		if (undo_stack == null) {
+			undo_stack = new UndoRecord[MAX_PLY];
+			for (int i = 0; i < MAX_PLY; i++)
+				undo_stack[i] = new UndoRecord();
+		}
+		UndoRecord record = undo_stack[undo_ply++];
+		record.prior_move = prior_move;
+		record.castling = (byte) getCastlingBits();
+		record.en_passant_square = en_passant_square;
+		record.ply_count = ply_count;
+		record.zobrist = zobrist;
+		record.all_moves = all_moves;
+		record.is_in_check = is_in_check;
+		record.pinned = pinned;
+		record.checkers = checkers;
+		record.pins_known = pins_known;
+		record.lz = lz;
+		return record;
+	}
+
+	/**
+	 * Takes back the last move made with doMove, restoring <i>this</i>
+	 * position to exactly the state it was in before that move.
+	 */
+	public void undoMove() {
+		UndoRecord record = undo_stack[--undo_ply];
+		int m = prior_move;
+		is_White_to_Move = !is_White_to_Move;
+		byte start = Move.startOf(m), end = Move.endOf(m), mod = Move
+				.modifierOf(m), c_col = is_White_to_Move ? Piece.WHITE
+				: Piece.BLACK;
+		Piece[] on_move = is_White_to_Move ? white_map : black_map;
+		Piece[] off_move = is_White_to_Move ? black_map : white_map;
+		switch (mod) {
+		case 1:
+		case 3:
+			setPiece(on_move, 0, Piece.valueOf((byte) 0x04, Piece.KING,
+					Piece.WHITE));
+			break;
+		case 2:
+		case 4:
+			setPiece(on_move, 0, Piece.valueOf((byte) 0x74, Piece.KING,
+					Piece.BLACK));
+			break;
+		case 5:
+			setPiece(on_move, indices[Bitboard
+					.toIndex((byte) (end + c_col * UP_MOVE))], Piece.valueOf(
+					end, Piece.PAWN, c_col));
+			break;
+		case 6:
+		case 7:
+		case 8:
+		case 9:
+		case 16:
+		case 17:
+		case 18:
+		case 19:
+			setPiece(on_move, indices[Bitboard.toIndex(end)],
+					Piece.valueOf(end, Piece.PAWN, c_col));
+			break;
+		}
+		int s_l = indices[Bitboard.toIndex(end)];
+		setPiece(on_move, s_l, on_move[s_l].move((byte) (start - end)));
+		Piece captured = record.captured;
+		if (captured.exists()) {
+			int h_l = record.captured_index, last = record.last_index;
+			Piece tail = off_move[h_l];
+			setPiece(off_move, h_l, captured);
+			if (h_l != last)
+				setPiece(off_move, last, tail);
+		}
+		setCastlingBits(record.castling);
+		en_passant_square = record.en_passant_square;
+		ply_count = record.ply_count;
+		half_moves--;
+		zobrist = record.zobrist;
+		prior_move = record.prior_move;
+		all_moves = record.all_moves;
+		is_in_check = record.is_in_check;
+		pinned = record.pinned;
+		checkers = record.checkers;
+		pins_known = record.pins_known;
+		lz = record.lz;
+	}
+
+	/**
+	 * Returns the ending game decision for the positions. This returns the
+	 * result of this position object, it it has already been decided.
+	 * 
+	 * @return the result of the game, masked by one of the constants. DRAW for
+	 *         a draw. WHITE_WINS if white wins. BLACK_WINS if black wins.
+	 *         NO_RESULT otherwise.
+	 */
+	public int getResult() {
+		if (getMoves().length == 0) {
+			if (!this.isInCheck(true))
+				return DRAW;
+			else
+				return (is_White_to_Move ? BLACK_WINS : WHITE_WINS);
+		}
+		return getDrawResult();
+	}
+
+	/**
+	 * Returns whether the position is drawn regardless of the moves left, by
+	 * the 50 move rule or by insufficient material. Unlike getResult, this
+	 * does not need to generate the legal moves.
+	 * 
+	 * @return DRAW if the position is drawn, NO_RESULT otherwise.
+	 */
+	public int getDrawResult() {
+		if (ply_count == 100)
+			return DRAW;
+		int whitePiecesLeft = getLastPieceIndice(true) + 1;
+		int blackPiecesLeft = getLastPieceIndice(false) + 1;
+		if (whitePiecesLeft == 1) {
+			if (blackPiecesLeft == 1)
+				return DRAW;
+			else if (blackPiecesLeft == 2)
+				if (black_map[1].getType() == Piece.KNIGHT)
+					return DRAW;
+				else if (blackPiecesLeft == 3)
+					if (black_map[1].getType() == Piece.KNIGHT
+							&& black_map[2].getType() == Piece.KNIGHT)
+						return DRAW;
+		} else if (blackPiecesLeft == 1) {
+			if (whitePiecesLeft == 2)
+				if (white_map[1].getType() == Piece.KNIGHT)
+					return DRAW;
+			if (whitePiecesLeft == 3)
+				if (white_map[1].getType() == Piece.KNIGHT
+						&& white_map[2].getType() == Piece.KNIGHT)
+					return DRAW;
+		} else if (whitePiecesLeft == 2 && blackPiecesLeft == 2) {
+			if (white_map[1].getType() == Piece.BISHOP
+					&& black_map[1].getType() == Piece.BISHOP) {
+				byte w_pos = white_map[1].getPosition(), b_pos = black_map[1]
+						.getPosition();
+				if ((((w_pos >> 4) + (w_pos & 7)) & 1)
+						+ (((b_pos >> 4) + (w_pos & 7)) & 1) == 1)
+					return DRAW;
+			}
+		}
+		return NO_RESULT;
+	}
+
+	/**
+	 * Returns the occupier of a specific square, or the null piece if the
+	 * square is empty. This method does so by looking up the mailbox.
+	 * 
+	 * @return the occupier of a specific square, the null piece if the square
+	 *         is empty.
+	 */
+	public Piece getSquareOccupier(byte square) {
+		if ((square & 0x88) != 0)
+			return Piece.getNullPiece();
+		return board[Bitboard.toIndex(square)];
+	}
+
+	/**
+	 * Returns the occupier of a specific square, or the null piece if the
+	 * square is empty. This method does so by running a specific map.
+	 * 
+	 * @return the occupier of a specific square, the null piece if the square
+	 *         is empty.
+	 */
+	public Piece getSquareOccupier(byte square, Piece[] map) {
+		for (int i = 0; i < map.length; i++) {
+			byte pos = map[i].getPosition();
+			if (pos == square)
+				return map[i];
+			else if (pos < 0)
+				break;
+		}
+		return Piece.getNullPiece();
+	}
+
+	/**
+	 * Returns the occupier of a specific square, or the null piece if the
+	 * square is empty or occupied by the other side. This method does so by
+	 * looking up the mailbox.
+	 * 
+	 * @param square
+	 *            The square to search for.
+	 * @param toSearch
+	 *            The side to search for, true if white, false if black.
+	 * @return the occupier of the specific square, the null piece if the square
+	 *         is empty.
+	 */
+	public Piece getSquareOccupier(byte square, boolean toSearch) {
+		Piece p = getSquareOccupier(square);
+		if (p.getColour() != (toSearch ? Piece.WHITE : Piece.BLACK))
+			return Piece.getNullPiece();
+		return p;
+	}
+
+	// ----------------------Helper Methods----------------------
+	/**
+	 * Builds the mailbox and the bitboards from the white and black piece
+	 * maps. Called once by every constructor.
+	 */
+	private void fillBoards() {
+		board = new Piece[64];
+		indices = new byte[64];
+		piece_boards = new long[Bitboard.BOARDS];
+		Arrays.fill(board, Piece.getNullPiece());
+		for (int i = 0; i < 2; i++) {
+			Piece[] map = i == 0 ? white_map : black_map;
+			for (int j = 0; j < map.length; j++) {
+				Piece p = map[j];
+				if (p.getType() == Piece.NULL)
+					break;
+				long bit = Bitboard.bit(p.getPosition());
+				board[Bitboard.toIndex(p.getPosition())] = p;
+				indices[Bitboard.toIndex(p.getPosition())] = (byte) j;
+				piece_boards[Bitboard.boardIndex(p.getType(), p.getColour())] |= bit;
+				if (i == 0)
+					white_occupancy |= bit;
+				else
+					black_occupancy |= bit;
+				accumulate(p, 1);
+			}
+		}
+	}
+
+	/**
+	 * Generates the moves of a knight, bishop, rook, queen or king from its
+	 * attack set.
+	 * 
+	 * @param piece
+	 *            The piece to move.
+	 * @param captures
+	 *            true to generate only the captures, false to generate only
+	 *            the moves onto empty squares.
+	 * @param list
+	 *            The list to write the packed moves into.
+	 * @param n
+	 *            The index of the first move written.
+	 * @return The index after the last move written.
+	 */
+	private int generatePieceMoves(Piece piece, boolean captures, int[] list,
+			int n) {
+		byte c_pos = piece.getPosition();
+		long targets = Attacks.of(piece.getType(), Bitboard.toIndex(c_pos),
+				getOccupancy())
+				& (captures ? getOccupancy((byte) -piece.getColour())
+						: ~getOccupancy());
+		while (targets != 0) {
+			n = addMove(list, n, c_pos, Bitboard.lowestSquare(targets),
+					captures ? (byte) 10 : (byte) 0);
+			targets &= targets - 1;
+		}
+		return n;
+	}
+
+	/**
+	 * Works out the pinned pieces of the side to move and the pieces giving
+	 * check to it, for isLegal. A piece is pinned when it is the only piece
+	 * between its king and an opposing rook, bishop or queen moving along
+	 * that line.
+	 */
+	private void findPins() {
+		byte c_col = is_White_to_Move ? Piece.WHITE : Piece.BLACK, o_col = (byte) (-1 * c_col);
+		int king = Bitboard.toIndex((is_White_to_Move ? white_map
+				: black_map)[0].getPosition());
+		long own = getOccupancy(c_col), occ = getOccupancy();
+		// the sliders that would attack the king if only their own side
+		// stood in the way
+		long snipers = (Attacks.rook(king, getOccupancy(o_col)) & (getBitboard(
+				Piece.ROOK, o_col) | getBitboard(Piece.QUEEN, o_col)))
+				| (Attacks.bishop(king, getOccupancy(o_col)) & (getBitboard(
+						Piece.BISHOP, o_col) | getBitboard(Piece.QUEEN, o_col)));
+		pinned = 0;
+		while (snipers != 0) {
+			long blockers = Attacks.between(king,
+					Long.numberOfTrailingZeros(snipers))
+					& occ;
+			if (blockers != 0 && (blockers & (blockers - 1)) == 0
+					&& (blockers & own) != 0)
+				pinned |= blockers;
+			snipers &= snipers - 1;
+		}
+		checkers = attackersOf(Bitboard.toX88(king), o_col, occ);
+		pins_known = true;
+	}
+
+	/**
+	 * Returns the pieces of a side attacking a square, as a bitboard.
+	 * 
+	 * @param sq
+	 *            The attacked square.
+	 * @param colour
+	 *            The colour of the attacking side.
+	 * @param occ
+	 *            The occupied squares, which block sliding pieces.
+	 * @return the bitboard of the pieces of the specified colour attacking
+	 *         the square.
+	 */
+	private long attackersOf(byte sq, byte colour, long occ) {
+		int i = Bitboard.toIndex(sq);
+		long queens = getBitboard(Piece.QUEEN, colour);
+		return (Attacks.rook(i, occ) & (getBitboard(Piece.ROOK, colour) | queens))
+				| (Attacks.bishop(i, occ) & (getBitboard(Piece.BISHOP, colour) | queens))
+				| (Attacks.knight(i) & getBitboard(Piece.KNIGHT, colour))
+				| (Attacks.king(i) & getBitboard(Piece.KING, colour))
+				| (Attacks.pawn(i, (byte) -colour) & getBitboard(Piece.PAWN,
+						colour));
+	}
+
+	/**
+	 * Returns the squares strictly between two squares on a common line.
+	 * 
+	 * @return the bitboard of the squares in between, empty if the squares
+	 *         are not on a common line.
+	 */
+	private static long between(byte from, byte to) {
+		return Attacks.between(Bitboard.toIndex(from), Bitboard.toIndex(to));
+	}
+
+	/**
+	 * Packs a move made on this position, looking up the types of the moving
+	 * and captured pieces on the mailbox.
+	 * 
+	 * @param start
+	 *            The starting square.
+	 * @param end
+	 *            The ending square.
+	 * @param mod
+	 *            The modifier of the move.
+	 * @return The packed move.
+	 */
+	private int encode(byte start, byte end, byte mod) {
+		return Move.encode(start, end, mod, getSquareOccupier(start).getType(),
+				getSquareOccupier(end).getType());
+	}
+
+	/**
+	 * Packs a move made on this position and adds it to a list.
+	 * 
+	 * @return The index after the added move.
+	 */
+	private int addMove(int[] list, int n, byte start, byte end, byte mod) {
+		list[n] = encode(start, end, mod);
+		return n + 1;
+	}
+
+	/**
+	 * Adds the four promotions of a pawn move to a list.
+	 * 
+	 * @param first
+	 *            The modifier of the promotion to a rook, 6 for a quiet
+	 *            promotion and 16 for a capture.
+	 * @return The index after the added moves.
+	 */
+	private int addPromotions(int[] list, int n, byte start, byte end,
+			byte first) {
+		for (int i = 0; i < 4; i++)
+			n = addMove(list, n, start, end, (byte) (first + i));
+		return n;
+	}
+
+	/**
+	 * Applies a move to <i>this</i> position. This is shared by makeMove, which
+	 * applies it to a fresh copy, and doMove, which records what it needs to
+	 * take the move back.
+	 * 
+	 * @param m
+	 *            The packed move to apply.
+	 * @param record
+	 *            The undo record to fill in, or null if the move is never
+	 *            going to be taken back.
+	 */
+	private void applyMove(int m, UndoRecord record) {
+		byte start = Move.startOf(m), end = Move.endOf(m), mod = Move
+				.modifierOf(m);
+		byte c_col = is_White_to_Move ? Piece.WHITE : Piece.BLACK, o_col = (byte) (c_col * -1);
+		Piece[] on_move = is_White_to_Move ? white_map : black_map;
+		Piece[] off_move = is_White_to_Move ? black_map : white_map;
+		int s_l = indices[Bitboard.toIndex(start)], rights = getCastlingBits();
+		Piece mover = on_move[s_l], victim = getSquareOccupier(end,
+				!is_White_to_Move);
+		boolean inc_ply = true;
+		byte new_eps = -1;
+		long new_hash = zobrist;
+
+		if (record != null)
+			record.captured = victim;
+		if (victim.exists()) {
+			inc_ply = false;
+			new_hash = Zobrist.xorout(new_hash, end, victim.getType(), o_col);
+			int h_l = indices[Bitboard.toIndex(end)], last = getLastPieceIndice(!is_White_to_Move);
+			Piece tail = off_move[last];
+			setPiece(off_move, last, Piece.getNullPiece());
+			if (h_l != last)
+				setPiece(off_move, h_l, tail);
+			if (record != null) {
+				record.captured_index = (byte) h_l;
+				record.last_index = (byte) last;
+			}
+		}
+		setPiece(on_move, s_l, Piece.valueOf(end, mover.getType(), c_col));
+		new_hash = Zobrist.xorinout(new_hash, end, start, mover.getType(),
+				c_col);
+		// deal with the "specialness" of the modifiers
+		switch (mod) {
+		case 1:
+			setPiece(on_move, 0, on_move[0].move((byte) 2));
+			new_hash = Zobrist.xorinout(new_hash, (byte) 6, (byte) 4,
+					Piece.KING, Piece.WHITE);
+			rights &= ~(W_KINGSIDE | W_QUEENSIDE);
+			break;
+		case 2:
+			setPiece(on_move, 0, on_move[0].move((byte) 2));
+			new_hash = Zobrist.xorinout(new_hash, (byte) 0x76, (byte) 0x74,
+					Piece.KING, Piece.BLACK);
+			rights &= ~(B_KINGSIDE | B_QUEENSIDE);
+			break;
+		case 3:
+			setPiece(on_move, 0, on_move[0].move((byte) -2));
+			new_hash = Zobrist.xorinout(new_hash, (byte) 2, (byte) 4,
+					Piece.KING, Piece.WHITE);
+			rights &= ~(W_KINGSIDE | W_QUEENSIDE);
+			break;
+		case 4:
+			setPiece(on_move, 0, on_move[0].move((byte) -2));
+			new_hash = Zobrist.xorinout(new_hash, (byte) 0x72, (byte) 0x74,
+					Piece.KING, Piece.BLACK);
+			rights &= ~(B_KINGSIDE | B_QUEENSIDE);
+			break;
+		case 5:
+			setPiece(on_move, s_l, on_move[s_l].move((byte) (c_col * UP_MOVE)));
+			new_hash = Zobrist.xorinout(new_hash,
+					(byte) (end + (c_col * UP_MOVE)), end, Piece.PAWN, c_col);
+			break;
+		case 6:
+		case 7:
+		case 8:
+		case 9:
+			setPiece(on_move, s_l, Piece.valueOf(end, (byte) (mod - 5), c_col));
+			new_hash = Zobrist.xorpromotion(new_hash, end, (byte) (mod - 5),
+					c_col);
+			break;
+		case 16:
+		case 17:
+		case 18:
+		case 19:
+			setPiece(on_move, s_l, Piece.valueOf(end, (byte) (mod - 15), c_col));
+			new_hash = Zobrist.xorpromotion(new_hash, end, (byte) (mod - 15),
+					c_col);
+			break;
+		}
+		if (mover.getType() == Piece.PAWN) {
+			// only consider epsq when en_passant is possible
+			if (mod == 20
+					&& (getSquareOccupier((byte) (end + LEFT_MOVE),
+							!is_White_to_Move).exists() || getSquareOccupier(
+							(byte) (end + RIGHT_MOVE), !is_White_to_Move)
+							.exists()))
+				new_eps = (byte) (end + (is_White_to_Move ? DOWN_MOVE : UP_MOVE));
+			inc_ply = false;
+		}
+		// deal with castling rights
+		rights &= ~(castlingLoss(start) | castlingLoss(end));
+
+		new_hash = Zobrist.xorcastling(new_hash, getCastlingBits(), rights);
+		new_hash = Zobrist.xorepsq(new_hash, en_passant_square, new_eps);
+		new_hash = Zobrist.xorside(new_hash);
+		setCastlingBits(rights);
+		en_passant_square = new_eps;
+		ply_count = (byte) (inc_ply ? ply_count + 1 : 0);
+		half_moves++;
+		is_White_to_Move = !is_White_to_Move;
+		zobrist = new_hash;
+		prior_move = m;
+		all_moves = null;
+		is_in_check = -1;
+		pins_known = false;
+		lz = null;
+	}
+
+	/**
+	 * Puts a piece at an index of a piece map. The piece previously held at
+	 * that index is taken off the mailbox and bitboards, and the new piece is
+	 * put on them.
+	 * 
+	 * @param map
+	 *            The piece map to change.
+	 * @param i
+	 *            The index inside the piece map.
+	 * @param p
+	 *            The new piece, or the null piece.
+	 */
+	private void setPiece(Piece[] map, int i, Piece p) {
+		Piece old = map[i];
+		if (old.exists()) {
+			int sq = Bitboard.toIndex(old.getPosition());
+			long bit = 1L << sq;
+			board[sq] = Piece.getNullPiece();
+			piece_boards[Bitboard.boardIndex(old.getType(), old.getColour())] &= ~bit;
+			if (old.getColour() == Piece.WHITE)
+				white_occupancy &= ~bit;
+			else
+				black_occupancy &= ~bit;
+			accumulate(old, -1);
+		}
+		map[i] = p;
+		if (p.exists()) {
+			int sq = Bitboard.toIndex(p.getPosition());
+			long bit = 1L << sq;
+			board[sq] = p;
+			indices[sq] = (byte) i;
+			piece_boards[Bitboard.boardIndex(p.getType(), p.getColour())] |= bit;
+			if (p.getColour() == Piece.WHITE)
+				white_occupancy |= bit;
+			else
+				black_occupancy |= bit;
+			accumulate(p, 1);
+		}
+	}
+
+	/**
+	 * Adds a piece to the material, piece-square and phase sums, or takes it
+	 * off them.
+	 * 
+	 * @param p
+	 *            The piece, standing on its square.
+	 * @param sign
+	 *            1 to add the piece, -1 to take it off.
+	 */
+	private void accumulate(Piece p, int sign) {
+		byte type = p.getType(), colour = p.getColour();
+		int sq = Bitboard.toIndex(p.getPosition());
+		int value = type == Piece.KING ? 0 : Piece.getValue(type);
+		if (colour == Piece.WHITE) {
+			white_material += sign * value;
+			white_phase += sign * Crescent.PieceTables.PHASE[type];
+		} else {
+			black_material += sign * value;
+			black_phase += sign * Crescent.PieceTables.PHASE[type];
+		}
+		middle_game += sign * Crescent.PieceTables.middleGame(type, colour, sq);
+		end_game += sign * Crescent.PieceTables.endGame(type, colour, sq);
+	}
+
+	/**
+	 * Returns the castling rights packed into the bits W_KINGSIDE,
+	 * B_KINGSIDE, W_QUEENSIDE and B_QUEENSIDE.
+	 */
+	private int getCastlingBits() {
+		return (w_kingside ? W_KINGSIDE : 0) | (b_kingside ? B_KINGSIDE : 0)
+				| (w_queenside ? W_QUEENSIDE : 0)
+				| (b_queenside ? B_QUEENSIDE : 0);
+	}
+
+	/**
+	 * Sets the castling rights from bits packed by getCastlingBits.
+	 */
+	private void setCastlingBits(int rights) {
+		w_kingside = (rights & W_KINGSIDE) != 0;
+		b_kingside = (rights & B_KINGSIDE) != 0;
+		w_queenside = (rights & W_QUEENSIDE) != 0;
+		b_queenside = (rights & B_QUEENSIDE) != 0;
+	}
+
+	/**
+	 * Returns the castling rights lost when a piece leaves or lands on a
+	 * square, e.g. a king moving or a rook being moved or captured.
+	 */
+	private static int castlingLoss(byte sq) {
+		switch (sq) {
+		case 0x04:
+			return W_KINGSIDE | W_QUEENSIDE;
+		case 0x74:
+			return B_KINGSIDE | B_QUEENSIDE;
+		case 0x07:
+			return W_KINGSIDE;
+		case 0x00:
+			return W_QUEENSIDE;
+		case 0x77:
+			return B_KINGSIDE;
+		case 0x70:
+			return B_QUEENSIDE;
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the last index of the last piece that is not null.
+	 * 
+	 * @param forWhite
+	 *            whether or not to search in white's pieces or black's.
+	 */
+	private int getLastPieceIndice(boolean forWhite) {
+		if (forWhite)
+			for (int i = 15; i >= 0; i--) {
+				if (white_map[i].getType() != Piece.NULL)
+					return i;
+			}
+		else
+			for (int i = 15; i >= 0; i--) {
+				if (black_map[i].getType() != Piece.NULL)
+					return i;
+			}
+		return 0;
+	}
+
+	
+	
+	/**
+	 * An entry of the undo stack, holding everything doMove overwrites that
+	 * cannot be worked out again from the move itself.
+	 */
+	private static final class UndoRecord {
+		int prior_move;
+		Piece captured;
+		byte captured_index;
+		byte last_index;
+		byte castling;
+		byte en_passant_square;
+		byte ply_count;
+		long zobrist;
+		int[] all_moves;
+		int is_in_check;
+		long pinned;
+		long checkers;
+		boolean pins_known;
+		Lorenz lz;
+	}
+}
\ No newline at end of file
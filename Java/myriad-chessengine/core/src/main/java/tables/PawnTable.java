@@ -0,0 +1,83 @@
+package tables;
+
+/**
+ * A hash table of pawn structures, indexed by the pawn key of a position (see
+ * Position.getPawnHash), which only changes when a pawn moves, is captured or promotes. Each
+ * entry holds a fixed number of words, the features worked out from the pawns alone, so that
+ * positions with the same pawns share them. It is shared by threads without any locking: the
+ * key of an entry is stored as a checksum of the pawn key and all of its words, and a reader
+ * that sees the words of one write and the key of another gets a checksum which does not
+ * match, and a miss. The checksum multiplies and rotates after each word, so unlike a plain
+ * xor, equal words do not cancel out and words swapped between entries change it.
+ * @author Spork Innovation Technologies
+ */
+public final class PawnTable {
+	//----------------------Constants----------------------
+	/** Folded into every stored key, so that an empty slot never matches a hash of 0. */
+	private static final long SEED = 0x9E3779B97F4A7C15L;
+	/** The odd multiplier of the checksum. */
+	private static final long MIX = 0xBF58476D1CE4E5B9L;
+	//----------------------End of Constants----------------------
+
+	//----------------------Instance Variables----------------------
+	private final long[] keys;
+	private final long[] data;
+	private final int words;
+	private final int mask;
+	//----------------------End of Instance Variables----------------------
+
+	//----------------------Constructors----------------------
+	/**
+	 * Constructs an empty pawn table.
+	 * @param bits The log, base 2, of the number of entries.
+	 * @param words The number of words of each entry.
+	 */
+	public PawnTable(int bits, int words) {
+		keys = new long[1 << bits];
+		data = new long[(1 << bits) * words];
+		this.words = words;
+		mask = (1 << bits) - 1;
+	}
+	//----------------------End of Constructors----------------------
+
+	//----------------------Methods----------------------
+	/**
+	 * Looks up the words of a pawn structure.
+	 * @param hash The pawn key of the position.
+	 * @param into The array the words are copied to, of at least the length of an entry. It
+	 * may be overwritten on a miss as well.
+	 * @return Whether the table held the pawn structure.
+	 */
+	public boolean get(long hash, long[] into) {
+		int index = (int) (hash ^ (hash >>> 32)) & mask, start = index * words;
+		long key = keys[index];
+		for (int i = 0; i < words; i++) into[i] = data[start + i];
+		return key == checksum(hash, into);
+	}
+	/**
+	 * Stores the words of a pawn structure, replacing whatever was in its slot.
+	 * @param hash The pawn key of the position.
+	 * @param from The words, of at least the length of an entry.
+	 */
+	public void put(long hash, long[] from) {
+		int index = (int) (hash ^ (hash >>> 32)) & mask, start = index * words;
+		for (int i = 0; i < words; i++) data[start + i] = from[i];
+		keys[index] = checksum(hash, from);
+	}
+	/**
+	 * Empties the table.
+	 */
+	public void clear() {
+		java.util.Arrays.fill(keys, 0);
+		java.util.Arrays.fill(data, 0);
+	}
+	/**
+	 * Returns the checksum of a pawn key and the words of its entry, which is stored as the key.
+	 */
+	private long checksum(long hash, long[] from) {
+		long check = hash ^ SEED;
+		for (int i = 0; i < words; i++) check = Long.rotateLeft((check ^ from[i]) * MIX, 31);
+		return check;
+	}
+	//----------------------End of Methods----------------------
+}
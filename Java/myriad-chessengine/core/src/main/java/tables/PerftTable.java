@@ -0,0 +1,81 @@
+package tables;
+
+/**
+ * A hash table of perft results, storing the number of leaf nodes below a position for a
+ * given depth. It is shared by the threads of a parallel perft without any locking: each
+ * entry is two longs, the node count packed with the depth and the hash xored with that
+ * packed value. A reader that sees the two halves of different writes gets a key which does
+ * not match, so a torn entry is treated as a miss rather than a wrong count.
+ * @author Spork Innovation Technologies
+ */
+public final class PerftTable {
+	//----------------------Constants----------------------
+	/** The value returned by get when the table holds no count for the position. */
+	public static final long MISS = -1;
+	/** The number of bits of an entry used by the depth. */
+	private static final int DEPTH_BITS = 8;
+	//----------------------End of Constants----------------------
+
+	//----------------------Instance Variables----------------------
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+	//----------------------End of Instance Variables----------------------
+
+	//----------------------Constructors----------------------
+	/**
+	 * Constructs an empty perft table.
+	 * @param bits The log, base 2, of the number of entries.
+	 */
+	public PerftTable(int bits) {
+		keys = new long[1 << bits];
+		data = new long[1 << bits];
+		mask = (1 << bits) - 1;
+	}
+	//----------------------End of Constructors----------------------
+
+	//----------------------Methods----------------------
+	/**
+	 * Looks up the node count of a position.
+	 * @param hash The hash of the position.
+	 * @param depth The depth the nodes were counted to.
+	 * @return The number of leaf nodes, or MISS if it is not in the table.
+	 */
+	public long get(long hash, int depth) {
+		int index = index(hash, depth);
+		long entry = data[index];
+		if ((keys[index] ^ entry) != hash || (entry & ((1 << DEPTH_BITS) - 1)) != depth)
+			return MISS;
+		return entry >>> DEPTH_BITS;
+	}
+	/**
+	 * Stores the node count of a position, replacing whatever was in its slot.
+	 * @param hash The hash of the position.
+	 * @param depth The depth the nodes were counted to.
+	 * @param nodes The number of leaf nodes.
+	 */
+	public void put(long hash, int depth, long nodes) {
+		int index = index(hash, depth);
+		long entry = (nodes << DEPTH_BITS) | depth;
+		data[index] = entry;
+		keys[index] = hash ^ entry;
+	}
+	/**
+	 * Empties the table.
+	 */
+	public void clear() {
+		java.util.Arrays.fill(keys, 0);
+		java.util.Arrays.fill(data, 0);
+	}
+	//----------------------End of Methods----------------------
+
+	//----------------------Helper Methods----------------------
+	/**
+	 * Returns the slot of a position and depth, so the counts of one position at several
+	 * depths do not all compete for the same slot.
+	 */
+	private int index(long hash, int depth) {
+		return (int) (hash ^ (hash >>> 32) ^ (depth * 0x9E3779B9L)) & mask;
+	}
+	//----------------------End of Helper Methods----------------------
+}
@@ -0,0 +1,308 @@
+package tables;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import rules.*;
+
+/**
+ * The transposition table for Myriad. Organizes the information into a bitstring, which is stores
+ * important data. The table will prefer deeper entries to shallower ones. E.g. if depth 6 and 4
+ * there are 3! ways to reach the depth 6 position, but only 2! to reach the depth 4 position.
+ * <p>
+ * The entries are grouped into buckets of ENTRIES_PER_BUCKET, laid out next to each other so
+ * that a probe reads a single cache line. The buckets live off the heap, in direct buffers of
+ * up to a gigabyte each, so that a table of several gigabytes adds nothing to the work of the
+ * garbage collector. Such tables need -XX:MaxDirectMemorySize to be raised to fit them.
+ * An entry is two longs: the key, holding
+ * the upper bits of the hash with the depth and the search generation in the low 16 bits, and
+ * the descriptor bitstring. A new entry replaces the same position if it is at least as deep,
+ * otherwise the least valuable entry of its bucket, counting entries left from earlier searches
+ * as shallower than they are.
+ * <p>
+ * The table can be shared by searching threads without any locking. The key of an entry is
+ * stored xored with its descriptor, and a reader xors the two longs back together. If another
+ * thread wrote one of the two in between, or a long write was torn, the recovered key does not
+ * match and the probe is a miss, so a reader never gets the descriptor of another position.
+ * <p>
+ * A table can be saved to a file and loaded back, to start the analysis of a position seen
+ * before with what was learnt about it. The file starts with a header carrying the Zobrist
+ * seed and a fingerprint of the hash values, and a file made with other hashes is rejected.
+ * @author Andy Huang
+ */
+public class Round {
+	// ----------------------Table Entry Fields----------------------
+	private ByteBuffer[] chunks;		// key^descriptor and bitstring description of each entry, by bucket
+	private volatile int generation;	// the search the table is being filled by
+	private long mask_bucket;			// the hash bits selecting a bucket
+	private int megabytes;
+	// ----------------------Constants----------------------
+	public static final long SCORE_RSH = 28;
+	public static final long EXACT_RSH = 27;
+	public static final long BOUND_RSH = 26;
+	public static final long MOVE_RSH = 1;
+	public static final int MASK_BIT = 1;
+	public static final int MASK_MOVE = (1 << Move.PACKED_BITS) - 1;
+	/** The number of entries in a bucket, 4 entries of 16 bytes fill a 64 byte cache line. */
+	public static final int ENTRIES_PER_BUCKET = 4;
+	/** The largest depth an entry can hold. */
+	public static final int MAX_DEPTH = 0xff;
+	/** The largest score an entry can hold, a larger one is stored as this and a smaller as -MAX_SCORE. */
+	public static final long MAX_SCORE = (1L << 34) - 1;
+	/** The smallest table, in megabytes. */
+	public static final int MIN_MEGABYTES = 1;
+	private static final int ENTRY_BYTES = 16;
+	private static final int BUCKET_SHIFT = 6;			// 64 bytes to a bucket
+	private static final int BUCKET_BYTES = 1 << BUCKET_SHIFT;
+	private static final int CHUNK_SHIFT = 30;			// 1 gigabyte to a buffer
+	private static final long MASK_CHUNK = (1L << CHUNK_SHIFT) - 1;
+	private static final byte[] ZEROS = new byte[1 << 16];
+	private static final long FILE_MAGIC = 0x4d59524941445454L;	// "MYRIADTT"
+	private static final int FILE_VERSION = 1;
+	private static final int HEADER_BYTES = 64;
+	private static final long MASK_CHECK = ~0xffffL;	// the hash bits verified by the key
+	private static final int GENERATION_LSH = 8;
+	private static final int MASK_BYTE = 0xff;
+	private static final int AGE_WEIGHT = 8;			// the depth an entry is worth per search of age
+	// ----------------------End of Constants----------------------
+	// ----------------------Constructor----------------------
+	/**
+	 * Constructs a Round (transposition table) object using about the given amount of memory.
+	 * The number of buckets is the largest power of two that fits.
+	 * @param megabytes The size of the table in megabytes, at least MIN_MEGABYTES.
+	 */
+	public Round(int megabytes){
+		resize(megabytes);
+	}
+	// ----------------------End of Constructor----------------------
+	// ----------------------Method----------------------
+	/**
+	 * Returns the maximum capacity of this Round object.
+	 * @return the maximum capacity of this Round object
+	 */
+	public long getSize(){
+		return (mask_bucket + 1) * ENTRIES_PER_BUCKET;
+	}
+	/**
+	 * Returns the size this Round object was given.
+	 * @return the size of the table in megabytes
+	 */
+	public int getMegabytes(){
+		return megabytes;
+	}
+	/**
+	 * Changes the size of the table, emptying it. This must not be called while the table
+	 * is being searched with.
+	 * @param megabytes The new size of the table in megabytes, at least MIN_MEGABYTES.
+	 */
+	public void resize(int megabytes){
+		if (megabytes < MIN_MEGABYTES) throw new IllegalArgumentException("Table size: " + megabytes);
+		long buckets = bucketsFor(megabytes);
+		long bytes = buckets << BUCKET_SHIFT;
+		ByteBuffer[] fresh = new ByteBuffer[(int) ((bytes + MASK_CHUNK) >>> CHUNK_SHIFT)];
+		chunks = null;	// let the old buffers go before the new ones are allocated
+		for (int i = 0; i < fresh.length; i++){
+			int length = (int) Math.min(bytes - ((long) i << CHUNK_SHIFT), 1L << CHUNK_SHIFT);
+			fresh[i] = ByteBuffer.allocateDirect(length).order(ByteOrder.nativeOrder());
+		}
+		chunks = fresh;
+		mask_bucket = buckets - 1;
+		this.megabytes = megabytes;
+		generation = 0;
+	}
+	/**
+	 * Starts a new search generation. Entries stored by earlier searches are kept, but they
+	 * are replaced more readily the older they get.
+	 */
+	public void newSearch(){
+		generation = (generation + 1) & MASK_BYTE;
+	}
+	/**
+	 * Empties the table.
+	 */
+	public void clear(){
+		for (ByteBuffer chunk : chunks){
+			ByteBuffer zero = chunk.duplicate();
+			zero.clear();
+			while (zero.remaining() > 0) zero.put(ZEROS, 0, Math.min(ZEROS.length, zero.remaining()));
+		}
+		generation = 0;
+	}
+	/**
+	 * Adds an element to the hash table.
+	 * An entry of the same position is only overwritten by one at least as deep, or by a cutoff
+	 * (a lower bound).
+	 * @param hash The true Zobrist hash of the position.
+	 * @param score The score (evaluated or bound) of the position, clamped to MAX_SCORE.
+	 * @param level The remaining search depth of the position.
+	 * @param exactValue Whether the score is exact, rather than a bound.
+	 * @param bound For a bound, true if the score is a lower bound (the search failed high, at
+	 * or above beta), false if it is an upper bound (it failed low, at or below alpha).
+	 * @param move The refutation move if the score is a bound, packed as described in Move.
+	 * @return Whether or not the entry was stored into the hash table.
+	 */
+	public boolean set(long hash, long score, short level, boolean exactValue, boolean bound,
+					   int move, boolean whiteMove){
+		int depth = Math.max(0, Math.min(level, MAX_DEPTH)), generation = this.generation;
+		long check = hash & MASK_CHECK;
+		long address = addressOf(hash);
+		ByteBuffer chunk = chunks[(int) (address >>> CHUNK_SHIFT)];
+		int bucket = (int) (address & MASK_CHUNK), index = bucket, lowest = Integer.MAX_VALUE;
+		for (int i = bucket; i < bucket + BUCKET_BYTES; i += ENTRY_BYTES){
+			long key = chunk.getLong(i) ^ chunk.getLong(i + 8);
+			if (key != 0 && (key & MASK_CHECK) == check){
+				if (depth < depthOf(key) && (exactValue || !bound)) return false;
+				index = i;
+				break;
+			}
+			// empty entries go first, then the shallowest, older searches counting as shallower
+			int worth = key == 0 ? Integer.MIN_VALUE : depthOf(key) - AGE_WEIGHT * ageOf(key, generation);
+			if (worth < lowest){
+				lowest = worth;
+				index = i;
+			}
+		}
+		// construct bitstring, see constants for rsh and mask values.
+		long string = Math.max(-MAX_SCORE, Math.min(score, MAX_SCORE));
+		string = (string << 1) + (exactValue ? 1 : 0);
+		string = (string << 1) + (bound ? 1 : 0);
+		string = (string << Move.PACKED_BITS) + move;
+		string = (string << 1) + (whiteMove ? 1 : 0);
+		chunk.putLong(index + 8, string);
+		chunk.putLong(index, (check | (generation << GENERATION_LSH) | depth) ^ string);
+		return true;
+	}
+	/**
+	 * Gets a hash from the hash table. A probe only reads the table, an entry is kept young by
+	 * storing it again.
+	 * @param hash The true Zobrist hash.
+	 * @return The descriptor bitstring. -1 if the hash was not found in the table.
+	 */
+	public long get(long hash){
+		long check = hash & MASK_CHECK;
+		long address = addressOf(hash);
+		ByteBuffer chunk = chunks[(int) (address >>> CHUNK_SHIFT)];
+		int bucket = (int) (address & MASK_CHUNK);
+		for (int i = bucket; i < bucket + BUCKET_BYTES; i += ENTRY_BYTES){
+			long data = chunk.getLong(i + 8), key = chunk.getLong(i) ^ data;
+			if (key != 0 && (key & MASK_CHECK) == check) return data;
+		}
+		return -1;
+	}
+	/**
+	 * Gets the depth of an entry of the hash table, as returned by get.
+	 * @param hash The true Zobrist hash.
+	 * @param entry The descriptor bitstring get returned.
+	 * @return The remaining search depth the entry was stored with. -1 if the hash was not found,
+	 * or its entry has been replaced since.
+	 */
+	public int getDepth(long hash, long entry){
+		long check = hash & MASK_CHECK;
+		long address = addressOf(hash);
+		ByteBuffer chunk = chunks[(int) (address >>> CHUNK_SHIFT)];
+		int bucket = (int) (address & MASK_CHUNK);
+		for (int i = bucket; i < bucket + BUCKET_BYTES; i += ENTRY_BYTES){
+			long data = chunk.getLong(i + 8), key = chunk.getLong(i) ^ data;
+			if (key != 0 && (key & MASK_CHECK) == check) return data == entry ? depthOf(key) : -1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Saves the table into a file, replacing what it held. The entries are written through
+	 * memory mappings of the file. This must not be called while the table is being searched with.
+	 * @param file The file to save to.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void save(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			FileChannel channel = raf.getChannel();
+			long bytes = (mask_bucket + 1) << BUCKET_SHIFT;
+			raf.setLength(HEADER_BYTES + bytes);
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.nativeOrder());
+			header.putLong(FILE_MAGIC).putInt(FILE_VERSION).putInt(megabytes).putLong(Zobrist.SEED)
+				.putLong(Zobrist.fingerprint()).putLong(mask_bucket + 1).putInt(generation);
+			header.clear();
+			while (header.hasRemaining()) channel.write(header, header.position());
+			for (int i = 0; i < chunks.length; i++){
+				ByteBuffer source = chunks[i].duplicate();
+				source.clear();
+				MappedByteBuffer target = channel.map(FileChannel.MapMode.READ_WRITE,
+						HEADER_BYTES + ((long) i << CHUNK_SHIFT), source.capacity());
+				target.put(source);
+				target.force();
+			}
+		} finally {
+			raf.close();
+		}
+	}
+	/**
+	 * Loads a table saved by save, resizing <i>this</i> table to the size it was saved with.
+	 * This must not be called while the table is being searched with.
+	 * @param file The file to load from.
+	 * @throws IOException If the file cannot be read, or holds no table made with the
+	 * Zobrist hashes in use. The table is left unchanged if the header is rejected.
+	 */
+	public void load(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.nativeOrder());
+			while (header.hasRemaining() && channel.read(header, header.position()) > 0);
+			header.flip();
+			if (header.remaining() < HEADER_BYTES || header.getLong() != FILE_MAGIC)
+				throw new IOException(file + " is not a saved hash table");
+			if (header.getInt() != FILE_VERSION)
+				throw new IOException(file + " was saved by another version of the table");
+			int saved_megabytes = header.getInt();
+			if (header.getLong() != Zobrist.SEED || header.getLong() != Zobrist.fingerprint())
+				throw new IOException(file + " was saved with other Zobrist hashes");
+			long buckets = header.getLong();
+			int saved_generation = header.getInt();
+			if (saved_megabytes < MIN_MEGABYTES || buckets != bucketsFor(saved_megabytes)
+					|| channel.size() != HEADER_BYTES + (buckets << BUCKET_SHIFT))
+				throw new IOException(file + " is truncated or damaged");
+			resize(saved_megabytes);
+			for (int i = 0; i < chunks.length; i++){
+				ByteBuffer target = chunks[i].duplicate();
+				target.clear();
+				target.put(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + ((long) i << CHUNK_SHIFT),
+						target.capacity()));
+			}
+			generation = saved_generation;
+		} finally {
+			raf.close();
+		}
+	}
+	// ----------------------End of Method----------------------
+	// ----------------------Helper Methods----------------------
+	/**
+	 * Returns the number of buckets of a table of the given size.
+	 */
+	private static long bucketsFor(int megabytes){
+		return Long.highestOneBit(((long) megabytes << 20) >> BUCKET_SHIFT);
+	}
+	/**
+	 * Returns the byte address of the bucket of a hash, counting across the buffers.
+	 */
+	private long addressOf(long hash){
+		return (hash & mask_bucket) << BUCKET_SHIFT;
+	}
+	/**
+	 * Returns the depth stored in an entry key.
+	 */
+	private static int depthOf(long key){
+		return (int) key & MASK_BYTE;
+	}
+	/**
+	 * Returns the number of searches since an entry was stored.
+	 */
+	private static int ageOf(long key, int generation){
+		return (generation - ((int) (key >>> GENERATION_LSH) & MASK_BYTE)) & MASK_BYTE;
+	}
+	// ----------------------End of Helper Methods----------------------
+}
\ No newline at end of file
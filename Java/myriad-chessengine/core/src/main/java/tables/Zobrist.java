@@ -10,12 +10,16 @@ import rules.*;
  */
 public class Zobrist {
 	//----------------------Constants----------------------
-	/**Stores the multipliers for each piece object to access the array.*/
-	private static final int[] multiplier = {1, 2, 4, 6, 8, 10, 12};
+	/**The number of hash values for each piece type, 64 squares for each colour.*/
+	private static final int TYPE_HASHES = 128;
 	/**The basic starting hash (empty board, no pieces, no castling rights)*/
 	private static final long base_hash = 0x00000000;
 	/** The index where castling hashes begin. */
 	private static final int CASTLING_HASHES = 832;
+	/** The index of the hash xored in when black is to move. */
+	private static final int SIDE_HASH = 836;
+	/** The seed of the hash values, fixed so hashes can be saved and loaded again. */
+	public static final long SEED = 1995;
 	/** The id to use for en passant in conjunction with getIndex **/
 	private static final byte EN_PASSANT_ID = 6;
 	//----------------------End of Constants----------------------
@@ -24,18 +28,21 @@ public class Zobrist {
 	 * The hash indices and their values. Indices 0-127 are for pawns (2 colors, 64 squares), indices
 	 * 128-255 are for rooks, indices 256-383 are for kights, indices 384-511 are for bishops, 
 	 * indices 512-639 are for queens, 640-767 are for kings, 768-831 are for en passant squares,
-	 * 832-835 are for castling rights.
+	 * 832-835 are for castling rights and 836 is for black to move.
 	 */
-	private static long[] hash_values = new long[836];
+	private static long[] hash_values = new long[837];
+	static {
+		init();
+	}
 	//----------------------End of Fields----------------------
 	//----------------------Methods----------------------
 	/**
-	 * Initialises the hashing system by generating the xor hash values. All hash values are unique,
-	 * although there may be collisions within indices.
+	 * Initialises the hashing system by generating the xor hash values. All hash values are unique.
+	 * This is done when the class is loaded, calling it again gives the same values.
 	 */
 	public static void init(){
-		Random rdm = new Random(1995);
-		long [] strings = new long[836];
+		Random rdm = new Random(SEED);
+		long [] strings = new long[837];
 		for(int i = 0; i < strings.length; i++){
 			long data = Math.abs(0x0 + rdm.nextLong());
 			boolean unique = false;
@@ -52,6 +59,16 @@ public class Zobrist {
 		}
 		hash_values = strings;
 	}
+	/**
+	 * Returns a fingerprint of all the hash values, which changes if the way they are generated
+	 * or used does. Saved hash tables carry it, so that tables with other hashes are rejected.
+	 * @return The fingerprint of the hash values.
+	 */
+	public static long fingerprint(){
+		long f = hash_values.length;
+		for (long h : hash_values) f = f * 31 + h;
+		return f;
+	}
 	/**
 	 * Creates a hash value from scratch. If there is an initial hash to compare to, then do not use
 	 * this method as it is awfully slow!
@@ -59,9 +76,11 @@ public class Zobrist {
 	 * @param black The black pieces to hash into the string.
 	 * @param castling_rights The castling rights for the position.
 	 * @oaram epsq The en-passant square for the position.
+	 * @param white_to_move Whether white is to move in the position.
 	 * @return The basic hash of the position, given the parameters.
 	 */
-	public static long createinitialhash (Piece [] white, Piece [] black, boolean [] castling_rights, byte epsq){
+	public static long createinitialhash (Piece [] white, Piece [] black, boolean [] castling_rights, byte epsq,
+			boolean white_to_move){
 		long to_return = base_hash;
 		for (Piece r: white) 
 			if (r.exists()) to_return ^= hash_values[getIndex(r.getPosition(), r.getType(), r.getColour())];
@@ -69,6 +88,7 @@ public class Zobrist {
 			if (r.exists()) to_return ^= hash_values[getIndex(r.getPosition(), r.getType(), r.getColour())];
 		for (int i = 0; i < 4; i++) if (castling_rights[i]) to_return ^= hash_values[CASTLING_HASHES+i];
 		if ((epsq & 0x88) == 0) to_return ^= hash_values[getIndex(epsq, EN_PASSANT_ID, Piece.WHITE)];
+		if (!white_to_move) to_return ^= hash_values[SIDE_HASH];
 		return to_return;
 	}
 	/**
@@ -107,6 +127,21 @@ public class Zobrist {
 			if (original_rights[i] &&!new_rights[i]) new_hash ^= hash_values[CASTLING_HASHES+i];
 		return new_hash;
 	}
+	/**
+	 * Xors in new castling rights, with the rights packed as bits in the same order as the castling
+	 * rights array: bit 0 is white kingside, bit 1 black kingside, bit 2 white queenside and bit 3
+	 * black queenside.
+	 * @param original_hash The original hash value.
+	 * @param original_rights The original castling rights to hash out.
+	 * @param new_rights The new castling rights to hash in.
+	 * @return A new hash after the specified transformations.
+	 */
+	public static long xorcastling (long original_hash, int original_rights, int new_rights){
+		long new_hash = original_hash;
+		for (int i = 0; i < 4; i++)
+			if ((original_rights & ~new_rights & (1 << i)) != 0) new_hash ^= hash_values[CASTLING_HASHES+i];
+		return new_hash;
+	}
 	/**
 	 * Xors in new en passant square designations.
 	 * @param original_hash The original hash value.
@@ -117,9 +152,17 @@ public class Zobrist {
 	public static long xorepsq (long original_hash, byte original_epsq, byte new_epsq){
 		long new_hash = original_hash;
 		if ((original_epsq & 0x88)==0) new_hash^=hash_values[getIndex(original_epsq,EN_PASSANT_ID,Piece.WHITE)];
-		if ((new_epsq & 0x88)==0) new_hash^= hash_values[getIndex(original_epsq,EN_PASSANT_ID,Piece.WHITE)];
+		if ((new_epsq & 0x88)==0) new_hash^= hash_values[getIndex(new_epsq,EN_PASSANT_ID,Piece.WHITE)];
 		return new_hash;
 	}
+	/**
+	 * Xors in a change of the side to move, done once for every move made.
+	 * @param original_hash The original hash value.
+	 * @return A new hash with the other side to move.
+	 */
+	public static long xorside (long original_hash){
+		return original_hash^hash_values[SIDE_HASH];
+	}
 	/**
 	 * Xors in a promotion.
 	 * @param original_hash The original hash value.
@@ -144,8 +187,8 @@ public class Zobrist {
 	 */
 	private static int getIndex(byte pos, byte id, byte color){
 		int modifier = color == Piece.WHITE ? 0 : 64;
-		return modifier+multiplier[id]*(pos-((pos >> 4)*0x8));
+		return id*TYPE_HASHES+modifier+Bitboard.toIndex(pos);
 	}
 	//----------------------End of Helper Methods----------------------
 	//----------------------End of Methods----------------------
-}
\ No newline at end of file
+}
\ No newline at end of file
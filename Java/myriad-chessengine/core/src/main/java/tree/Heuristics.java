@@ -0,0 +1,130 @@
+package tree;
+
+import java.util.Arrays;
+
+import rules.*;
+
+/**
+ * The move ordering heuristics a search learns as it goes, kept by each searching thread in
+ * primitive arrays indexed by ply and square:
+ * <ul>
+ * <li>two killer moves for every ply, the latest quiet moves to cause a cutoff there;</li>
+ * <li>the butterfly history, a score for every side, start and end square, raised each time a
+ * quiet move causes a cutoff, by more the deeper the cutoff;</li>
+ * <li>the counter moves, the quiet move that last refuted each move, indexed by the side, the
+ * piece type and the end square of the move refuted;</li>
+ * <li>the follow-up moves, the quiet move that last caused a cutoff after each move of the same
+ * side two plies earlier, indexed the same way.</li>
+ * </ul>
+ * The killers only apply to the search they were found in. The history is halved at the start
+ * of each search, so it leans to what was learnt last, and the counter and follow-up moves are
+ * kept. All of them are hints: the picker checks a move is legal before handing it out.
+ * @author Spork Innovation Technologies
+ */
+public final class Heuristics {
+	//----------------------Constants----------------------
+	/** The number of killer moves kept for every ply. */
+	public static final int KILLERS_PER_PLY = 2;
+	/** The bound of the history scores, a cutoff moves a score by a share of what is left to it. */
+	public static final int MAX_HISTORY = 1 << 14;
+	/** The entries of the tables indexed by a move: side, piece type and end square. */
+	private static final int PIECE_TO = 2 * 6 * 64;
+	//----------------------End of Constants----------------------
+
+	//----------------------Instance Variables----------------------
+	private final int[] killers = new int[Position.MAX_PLY * KILLERS_PER_PLY];
+	private final int[] history = new int[2 * 64 * 64];
+	private final int[] counter_moves = new int[PIECE_TO];
+	private final int[] follow_ups = new int[PIECE_TO];
+	//----------------------End of Instance Variables----------------------
+
+	//----------------------Methods----------------------
+	/**
+	 * Gets the heuristics ready for a new search: the killers are cleared and the history halved.
+	 */
+	public void newSearch(){
+		Arrays.fill(killers, Move.NO_MOVE);
+		for (int i = 0; i < history.length; i++) history[i] /= 2;
+	}
+	/**
+	 * Forgets everything, as for a new game.
+	 */
+	public void clear(){
+		Arrays.fill(killers, Move.NO_MOVE);
+		Arrays.fill(history, 0);
+		Arrays.fill(counter_moves, Move.NO_MOVE);
+		Arrays.fill(follow_ups, Move.NO_MOVE);
+	}
+	/**
+	 * Returns a killer move of a ply.
+	 * @param ply The distance from the root.
+	 * @param slot 0 for the newest killer, 1 for the one before.
+	 * @return The packed move, Move.NO_MOVE if there is none.
+	 */
+	public int getKiller(int ply, int slot){
+		return killers[ply * KILLERS_PER_PLY + slot];
+	}
+	/**
+	 * Returns the move that last refuted a move.
+	 * @param prior The packed move to be answered, Move.NO_MOVE if it is not known.
+	 * @param white Whether white is to answer it.
+	 * @return The packed counter move, Move.NO_MOVE if there is none.
+	 */
+	public int getCounterMove(int prior, boolean white){
+		return prior == Move.NO_MOVE ? Move.NO_MOVE : counter_moves[pieceTo(prior, !white)];
+	}
+	/**
+	 * Returns the move that last caused a cutoff after a move of the same side.
+	 * @param earlier The packed move the side played two plies ago, Move.NO_MOVE if it is not known.
+	 * @param white Whether white is to move.
+	 * @return The packed follow-up move, Move.NO_MOVE if there is none.
+	 */
+	public int getFollowUp(int earlier, boolean white){
+		return earlier == Move.NO_MOVE ? Move.NO_MOVE : follow_ups[pieceTo(earlier, white)];
+	}
+	/**
+	 * Returns the history score of a quiet move.
+	 * @param m The packed move.
+	 * @param white Whether white is to make it.
+	 */
+	public int getHistory(int m, boolean white){
+		return history[butterfly(m, white)];
+	}
+	/**
+	 * Records a quiet move that caused a cutoff: it becomes the newest killer of its ply, the
+	 * counter move of the move before it and the follow-up of the one before that, and its
+	 * history score is raised by the square of the remaining depth.
+	 * @param p The position the move was made in.
+	 * @param ply The distance of the position from the root.
+	 * @param m The packed move.
+	 * @param depth The remaining depth of the position.
+	 */
+	public void update(Position p, int ply, int m, int depth){
+		boolean white = p.isWhiteToMove();
+		int k = ply * KILLERS_PER_PLY;
+		if (killers[k] != m) {
+			for (int i = KILLERS_PER_PLY - 1; i > 0; i--) killers[k + i] = killers[k + i - 1];
+			killers[k] = m;
+		}
+		int prior = p.getPriorMoveCode(), earlier = p.getEarlierMoveCode();
+		if (prior != Move.NO_MOVE) counter_moves[pieceTo(prior, !white)] = m;
+		if (earlier != Move.NO_MOVE) follow_ups[pieceTo(earlier, white)] = m;
+		int i = butterfly(m, white), bonus = Math.min(depth * depth, MAX_HISTORY);
+		// the closer a score is to the bound, the less it grows, so it never reaches it
+		history[i] += bonus - history[i] * bonus / MAX_HISTORY;
+	}
+	/**
+	 * Returns the index of a move in the butterfly history.
+	 */
+	private static int butterfly(int m, boolean white){
+		return (white ? 0 : 4096) + Bitboard.toIndex(Move.startOf(m)) * 64
+				+ Bitboard.toIndex(Move.endOf(m));
+	}
+	/**
+	 * Returns the index of a move in the counter and follow-up move tables.
+	 */
+	private static int pieceTo(int m, boolean white){
+		return ((white ? 0 : 6) + Move.pieceOf(m)) * 64 + Bitboard.toIndex(Move.endOf(m));
+	}
+	//----------------------End of Methods----------------------
+}
@@ -0,0 +1,179 @@
+package tree;
+
+import rules.*;
+
+/**
+ * Hands out the moves of a position one at a time, in stages: the move stored in the
+ * transposition table first, then the captures and promotions, most valuable victim
+ * and least valuable attacker first, then the refutations (the killer moves of the ply,
+ * the counter move and the follow-up move, see Heuristics) and then the remaining quiet
+ * moves, highest history score first. Each stage is only generated once the one before it has run out, so a node that
+ * is cut off early never generates its quiet moves. The moves handed out are legal.
+ * For the quiescence search a picker can hand out the captures and promotions alone.
+ * A picker is reused for every node searched at the same ply.
+ * @author Spork Innovation Technologies
+ */
+public final class MovePicker {
+	//----------------------Constants----------------------
+	private static final int HASH_MOVE = 0;
+	private static final int GENERATE_CAPTURES = 1;
+	private static final int CAPTURES = 2;
+	private static final int REFUTATIONS = 3;
+	private static final int GENERATE_QUIETS = 4;
+	private static final int QUIETS = 5;
+	private static final int DONE = 6;
+	/** The order of the piece types for MVV-LVA, indexed by type. */
+	private static final int[] ORDER = {1, 4, 2, 3, 5, 6};
+	//----------------------End of Constants----------------------
+	//----------------------Instance Variables----------------------
+	private final int[] moves = new int[Position.MAX_MOVES];
+	private final int[] scores = new int[Position.MAX_MOVES];
+	/** The killer moves, the counter move and the follow-up move. */
+	private final int[] refutations = new int[Heuristics.KILLERS_PER_PLY + 2];
+	private Heuristics heuristics;
+	private Position position;
+	private int hash_move;
+	private int stage;
+	private boolean captures_only;
+	private int current;
+	private int end;
+	//----------------------End of Instance Variables----------------------
+
+	//----------------------Methods----------------------
+	/**
+	 * Starts handing out the moves of a position.
+	 * @param p The position, the picker asks it for moves as it goes.
+	 * @param hash The packed move from the transposition table, or Move.NO_MOVE.
+	 * @param h The heuristics of the search, the refutations are copied so they may change
+	 * meanwhile.
+	 * @param ply The distance of the position from the root.
+	 */
+	public void init(Position p, int hash, Heuristics h, int ply){
+		position = p;
+		hash_move = hash;
+		heuristics = h;
+		boolean white = p.isWhiteToMove();
+		for (int i = 0; i < Heuristics.KILLERS_PER_PLY; i++)
+			refutations[i] = h.getKiller(ply, i);
+		refutations[Heuristics.KILLERS_PER_PLY] = h.getCounterMove(p.getPriorMoveCode(), white);
+		refutations[Heuristics.KILLERS_PER_PLY + 1] = h.getFollowUp(p.getEarlierMoveCode(), white);
+		stage = HASH_MOVE;
+		captures_only = false;
+	}
+	/**
+	 * Starts handing out the captures and promotions of a position, and nothing else.
+	 * @param p The position, the picker asks it for moves as it goes.
+	 */
+	public void initCaptures(Position p){
+		position = p;
+		hash_move = Move.NO_MOVE;
+		stage = GENERATE_CAPTURES;
+		captures_only = true;
+	}
+	/**
+	 * Returns the next legal move of the position.
+	 * @return The next packed move, Move.NO_MOVE once there are no moves left.
+	 */
+	public int next(){
+		while (true){
+			switch (stage){
+			case HASH_MOVE:
+				stage = GENERATE_CAPTURES;
+				if (hash_move != Move.NO_MOVE && position.isPseudoLegal(hash_move) 
+						&& position.isLegal(hash_move))
+					return hash_move;
+				hash_move = Move.NO_MOVE;
+				break;
+			case GENERATE_CAPTURES:
+				current = 0;
+				end = position.generateCaptures(moves, 0);
+				for (int i = 0; i < end; i++)
+					scores[i] = score(moves[i]);
+				stage = CAPTURES;
+				break;
+			case CAPTURES:
+				while (current < end){
+					int m = pickBest();
+					if (m != hash_move && position.isLegal(m))
+						return m;
+				}
+				current = 0;
+				stage = captures_only ? DONE : REFUTATIONS;
+				break;
+			case REFUTATIONS:
+				while (current < refutations.length){
+					int m = refutations[current++];
+					if (m != Move.NO_MOVE && m != hash_move && !isTactical(m) 
+							&& !isRefutation(m, current - 1)
+							&& position.isPseudoLegal(m) && position.isLegal(m))
+						return m;
+				}
+				stage = GENERATE_QUIETS;
+				break;
+			case GENERATE_QUIETS:
+				current = 0;
+				end = position.generateQuiets(moves, 0);
+				boolean white = position.isWhiteToMove();
+				for (int i = 0; i < end; i++)
+					scores[i] = heuristics.getHistory(moves[i], white);
+				stage = QUIETS;
+				break;
+			case QUIETS:
+				while (current < end){
+					int m = pickBest();
+					if (m != hash_move && !isRefutation(m, refutations.length)
+							&& position.isLegal(m))
+						return m;
+				}
+				stage = DONE;
+				break;
+			default:
+				return Move.NO_MOVE;
+			}
+		}
+	}
+	/**
+	 * Swaps the best scored move left into the current slot and takes it. A selection
+	 * sort, as a cut node rarely needs more than the first few moves of a stage.
+	 */
+	private int pickBest(){
+		int best = current;
+		for (int i = current + 1; i < end; i++)
+			if (scores[i] > scores[best]) best = i;
+		int m = moves[best];
+		moves[best] = moves[current];
+		scores[best] = scores[current];
+		current++;
+		return m;
+	}
+	/**
+	 * Checks whether a move is one of the first refutations, which have been handed out already.
+	 * @param m The packed move.
+	 * @param count The number of refutations to look at.
+	 */
+	private boolean isRefutation(int m, int count){
+		for (int i = 0; i < count; i++)
+			if (refutations[i] == m) return true;
+		return false;
+	}
+	/**
+	 * Scores a capture or promotion, most valuable victim first and least valuable
+	 * attacker first among equal victims.
+	 */
+	private static int score(int m){
+		byte victim = Move.capturedOf(m), mod = Move.modifierOf(m);
+		int s = victim == Piece.NULL ? 0 : ORDER[victim] * 8 - ORDER[Move.pieceOf(m)];
+		if (mod >= 6 && mod <= 9) s += ORDER[mod - 5] * 8;
+		else if (mod >= 16 && mod <= 19) s += ORDER[mod - 15] * 8;
+		return s;
+	}
+	/**
+	 * Checks whether a move is generated with the captures, that is whether it captures
+	 * or promotes.
+	 */
+	static boolean isTactical(int m){
+		byte mod = Move.modifierOf(m);
+		return Move.capturedOf(m) != Piece.NULL || (mod >= 6 && mod <= 9);
+	}
+	//----------------------End of Methods----------------------
+}
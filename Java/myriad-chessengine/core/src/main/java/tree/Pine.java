@@ -0,0 +1,944 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import eval.*;
+import rules.*;
+import tables.Round;
+
+/**
+ * The search. A Pine searches on the thread calling it, and can be given more threads in one
+ * of two ways.
+ * <p>
+ * With SHARED_HASH (Lazy SMP) each helper thread is a Pine of its own, with its own position,
+ * move pickers, heuristics and counters, running the same iterative deepening alongside. The
+ * threads share nothing but the transposition table, through which the helpers fill in the
+ * parts of the tree the calling thread goes on to search. Only the calling thread's result
+ * is used.
+ * <p>
+ * With SPLIT_POINTS (Young Brothers Wait) there is one search, and the younger brothers of
+ * a principal variation node are handed to a fork-join pool once the eldest has been searched,
+ * see SplitPoint. Each task borrows a worker Pine for its state.
+ * <p>
+ * A Pine keeps no game tree. The state of a node lives in arrays indexed by ply, the move
+ * pickers and the rows of the principal variation table, which every node at that ply reuses,
+ * so the memory of a search is fixed however many nodes it visits. What one iteration or one
+ * search has learnt is passed on through the transposition table.
+ * <p>
+ * The search is selective: away from the principal variation it prunes and reduces what it
+ * judges unlikely to matter, by the thresholds of a Selectivity.
+ */
+public class Pine {
+	/** The parallel mode in which helper threads run their own search, sharing the hash table. */
+	public static final int SHARED_HASH = 0;
+	/** The parallel mode in which the moves of principal variation nodes are split among threads. */
+	public static final int SPLIT_POINTS = 1;
+	/** The size of the transposition table in megabytes, until it is resized. */
+	public static final int HASH_MEGABYTES = 16;
+	/** The transposition table, shared by every search and every thread. */
+	public static final Round table = new Round(HASH_MEGABYTES);
+	/** A score no search result reaches, and which can be negated without overflowing. */
+	public static final long INFINITY = Long.MAX_VALUE - 1;
+	/**
+	 * The score of a mate on the board. A mate n plies from the root scores MATE - n for the
+	 * side that mates, so nearer mates score higher, and every mate stays below INFINITY.
+	 */
+	private static final long MATE = INFINITY - 1;
+	/** The lowest score of a mate, one found as deep as a search goes. */
+	private static final long MATE_BOUND = MATE - Position.MAX_PLY;
+	/** The number of nodes searched between looks at the clock, a power of two. */
+	private static final int CHECK_INTERVAL = 1024;
+	/** The half width of the first aspiration window, in centipawns. */
+	private static final long ASPIRATION_WINDOW = 25;
+	/** The first iteration searched with an aspiration window, shallower ones are too unstable. */
+	private static final int ASPIRATION_DEPTH = 4;
+	/** The widest aspiration window, past which a failed search is repeated with a full one. */
+	private static final long WIDEST_WINDOW = 1000;
+	/** The shallowest remaining depth at which a node is split, below it the tasks are too small. */
+	private static final int MIN_SPLIT_DEPTH = 4;
+	/**
+	 * The margin of delta pruning, in centipawns: a capture is not searched by the quiescence
+	 * search if winning the captured piece and this much more would still leave it below alpha.
+	 */
+	private static final long DELTA_MARGIN = 200;
+	/**
+	 * The iterations the helpers skip, in blocks of SKIP_SIZE[i] iterations searched and as
+	 * many skipped, shifted by SKIP_PHASE[i], for helper i modulo their length. Each helper thus
+	 * runs through the depths in its own order, and at any moment the threads are spread over
+	 * several iterations instead of all searching the same one.
+	 */
+	private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+	private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+	/** The squares of the a-file, as a bitboard. */
+	private static final long FILE_A = 0x0101010101010101L;
+
+	/** The best move of the last completed iteration, packed. */
+	private int best_move;
+	/** The best move found so far by the running iteration, packed. */
+	private int iteration_best;
+	private int counter;
+	/** The killer, history, counter and follow-up moves of this thread. */
+	private final Heuristics heuristics = new Heuristics();
+	private final MovePicker[] pickers = new MovePicker[Position.MAX_PLY];
+	/**
+	 * The triangular principal variation table. Row ply holds the best line found from that
+	 * ply on, in columns ply to pv_length[ply] - 1, and is made of the move played at ply
+	 * followed by row ply + 1.
+	 */
+	private final int[][] pv = new int[Position.MAX_PLY][Position.MAX_PLY];
+	private final int[] pv_length = new int[Position.MAX_PLY];
+	/** The principal variation of the last completed iteration. */
+	private int[] principal_variation = new int[0];
+
+	private SearchLimits limits;
+	private long nodes, start_time, soft_limit, hard_limit, best_score;
+	private int completed_depth;
+	/** Set by stop, from any thread, to end the search after its current iteration. */
+	private volatile boolean stopped;
+	/** Set when the running iteration has to be abandoned, its result is then thrown away. */
+	private boolean aborted;
+	/** The pruning and reductions of the search, shared with the helpers and workers. */
+	private Selectivity selectivity = new Selectivity();
+	/** The ply of the node whose null move cutoff is being verified, -1 if there is none. */
+	private int verifying_ply = -1;
+	/** The plies of extension along the path to the node at each ply. */
+	private final int[] extensions = new int[Position.MAX_PLY];
+	/** The move left out at each ply while its singularity is tested, Move.NO_MOVE otherwise. */
+	private final int[] excluded = new int[Position.MAX_PLY];
+
+	/** Whether this Pine is the helper of another, searching quietly until stopped. */
+	private final boolean helper;
+	/** For a helper, the index of its iteration skipping schedule, see SKIP_SIZE. */
+	private int skip;
+	private Pine[] helpers = new Pine[0];
+	private ExecutorService helper_threads;
+	private int threads = 1, parallel_mode = SHARED_HASH;
+
+	/** The pool the split points are searched on, null unless in SPLIT_POINTS mode. */
+	private ForkJoinPool split_pool;
+	/** The worker Pines not searching a split point task at the moment. */
+	private final ConcurrentLinkedQueue<Pine> idle_workers = new ConcurrentLinkedQueue<Pine>();
+	/** The nodes searched by the split point tasks. */
+	private final AtomicLong split_nodes = new AtomicLong();
+	/** For a worker, the Pine whose search it helps, null otherwise. */
+	private final Pine master;
+	/** For a worker, the split point the task it is running lies below. */
+	private SplitPoint split;
+
+	/**
+	 * Constructs a search. The position is given with each search, to search.
+	 */
+	public Pine(){
+		this(false, null);
+	}
+	/**
+	 * Constructs a search, as Pine() does.
+	 * @param p Unused, the position is given with each search.
+	 * @deprecated A Pine keeps no game tree, so it has no position of its own; use Pine().
+	 */
+	@Deprecated
+	public Pine(Position p){
+		this();
+	}
+	private Pine(boolean helper, Pine master){
+		this.helper = helper;
+		this.master = master;
+	}
+	/**
+	 * Sets the number of threads searching. In SHARED_HASH mode the calling thread is one of
+	 * them and the rest are helpers, started with each search and stopped when it returns. In
+	 * SPLIT_POINTS mode they are the threads of the pool the split points are searched on.
+	 * @param threads The number of threads, at least 1.
+	 */
+	public void setThreads(int threads){
+		this.threads = Math.max(1, threads);
+		if (helper_threads != null) helper_threads.shutdownNow();
+		if (split_pool != null) split_pool.shutdownNow();
+		helper_threads = null;
+		split_pool = null;
+		helpers = new Pine[0];
+		idle_workers.clear();
+		if (this.threads == 1) return;
+		if (parallel_mode == SPLIT_POINTS) {
+			split_pool = new ForkJoinPool(this.threads);
+			return;
+		}
+		helpers = new Pine[this.threads - 1];
+		for (int i = 0; i < helpers.length; i++) {
+			helpers[i] = new Pine(true, null);
+			helpers[i].skip = i % SKIP_SIZE.length;
+		}
+		helper_threads = Executors.newFixedThreadPool(helpers.length, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "Pine helper");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+	/**
+	 * Returns the number of threads searching, the calling thread included.
+	 */
+	public int getThreads(){
+		return threads;
+	}
+	/**
+	 * Sets how more than one thread search, keeping the number of threads.
+	 * @param mode SHARED_HASH or SPLIT_POINTS.
+	 */
+	public void setParallelMode(int mode){
+		if (mode != SHARED_HASH && mode != SPLIT_POINTS)
+			throw new IllegalArgumentException("Unknown parallel mode " + mode);
+		parallel_mode = mode;
+		setThreads(threads);
+	}
+	/**
+	 * Returns how more than one thread search, SHARED_HASH or SPLIT_POINTS.
+	 */
+	public int getParallelMode(){
+		return parallel_mode;
+	}
+	/**
+	 * Sets the pruning and reductions of the searches to come.
+	 * @param selectivity The thresholds, Selectivity.none() for a full width search.
+	 */
+	public void setSelectivity(Selectivity selectivity){
+		this.selectivity = selectivity;
+	}
+	/**
+	 * Returns the pruning and reductions of the search.
+	 */
+	public Selectivity getSelectivity(){
+		return selectivity;
+	}
+	/**
+	 * Returns the best move of the last search, null if there were no legal moves.
+	 */
+	public Move getBestMove(){
+		return best_move == Move.NO_MOVE ? null : Move.decode(best_move);
+	}
+	/**
+	 * Returns the principal variation of the last completed iteration: the best move, the
+	 * best reply to it, and so on.
+	 */
+	public Move[] getPrincipalVariation(){
+		Move[] line = new Move[principal_variation.length];
+		for (int i = 0; i < line.length; i++) line[i] = Move.decode(principal_variation[i]);
+		return line;
+	}
+	/**
+	 * Returns the depth of the last iteration the search completed.
+	 */
+	public int getCompletedDepth(){
+		return completed_depth;
+	}
+	/**
+	 * Returns the number of nodes visited by the last search, on every thread.
+	 */
+	public long getNodes(){
+		long total = nodes + split_nodes.get();
+		for (Pine h : helpers) total += h.nodes;
+		return total;
+	}
+	/**
+	 * Asks a running search to stop. The search returns as soon as it notices, with the best
+	 * move of the last iteration it completed. The first iteration is always completed.
+	 */
+	public void stop(){
+		stopped = true;
+	}
+	private long eval(Position p, int result) {
+		//Assume the position does end in someone winning, 
+		//or that this is the last level of search
+		//d is the result of the game
+		counter++; // counter should be added here
+		return Crescent.evaluate(p);
+	}
+	/**
+	 * Searches a position by iterative deepening: depth 1, then 2, then 3 and so on, until
+	 * one of the limits is reached. Each iteration stores its principal variation in the
+	 * transposition table, so the next one searches that line first, and the moves the table
+	 * holds elsewhere in the tree order the moves there. An iteration cut short by the limits
+	 * is thrown away.
+	 * <p>
+	 * From ASPIRATION_DEPTH on an iteration is first searched with a narrow window around the
+	 * score of the one before. When the score falls outside it the window is widened on that
+	 * side and the iteration searched again.
+	 * <p>
+	 * The helper threads, if any, search until this returns. Each skips iterations by its own
+	 * schedule (see SKIP_SIZE), so the threads do not all work on the same iteration. The time
+	 * and node limits are those of the calling thread.
+	 * @param original The current position of the board, left unchanged.
+	 * @param limits When to stop searching.
+	 * @return The best move of the last completed iteration, null if there are no legal moves.
+	 */
+	public Move search(Position original, SearchLimits limits) {
+		System.out.println("PVS Start");
+		table.newSearch();
+		reset(original, limits);
+		// the search makes and takes back moves on its own copy
+		Position p = original.copy();
+		Future<?>[] running = startHelpers(p, limits.depth);
+		deepen(p);
+		for (Pine h : helpers) h.stop();
+		for (Future<?> f : running) {
+			try {
+				f.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+		}
+		System.out.println("Time Elapsed = " + (System.currentTimeMillis() - start_time));
+		System.out.println("Number of Positions Evaluated = " + counter);
+		System.out.println("PVS Done");
+		return getBestMove();
+	}
+	/**
+	 * Gets this Pine ready for a new search.
+	 */
+	private void reset(Position original, SearchLimits limits) {
+		boolean white = original.isWhiteToMove();
+		this.limits = limits;
+		soft_limit = limits.softLimit(white);
+		hard_limit = limits.hardLimit(white);
+		start_time = System.currentTimeMillis();
+		nodes = 0;
+		split_nodes.set(0);
+		counter = 0;
+		completed_depth = 0;
+		stopped = aborted = false;
+		verifying_ply = -1;
+		best_move = Move.NO_MOVE;
+		principal_variation = new int[0];
+		heuristics.newSearch();
+	}
+	/**
+	 * Starts the helper threads searching a position, each on its own copy.
+	 * @param p The position, which is copied before this returns.
+	 * @param depth The deepest iteration the helpers search.
+	 * @return The running helpers.
+	 */
+	private Future<?>[] startHelpers(Position p, int depth) {
+		Future<?>[] running = new Future<?>[helpers.length];
+		for (int i = 0; i < helpers.length; i++) {
+			final Pine h = helpers[i];
+			final Position copy = p.copy();
+			h.selectivity = selectivity;
+			h.reset(copy, SearchLimits.depth(depth));
+			running[i] = helper_threads.submit(new Runnable() {
+				public void run() {
+					h.deepen(copy);
+				}
+			});
+		}
+		return running;
+	}
+	/**
+	 * Searches iteration after iteration until the limits are reached or the search is stopped.
+	 * A helper leaves out the iterations its schedule skips.
+	 * @param p The root position, left unchanged.
+	 */
+	private void deepen(Position p) {
+		int color = p.isWhiteToMove() ? 1 : -1;
+		for (int depth = 1; depth <= limits.depth; depth++) {
+			if (helper && ((depth + SKIP_PHASE[skip]) / SKIP_SIZE[skip]) % 2 != 0) continue;
+			iteration_best = Move.NO_MOVE;
+			aspire(p, depth, color);
+			if (aborted || iteration_best == Move.NO_MOVE) break;
+			best_move = iteration_best;
+			completed_depth = depth;
+			principal_variation = Arrays.copyOf(pv[0], pv_length[0]);
+			storePrincipalVariation(p, depth);
+			if (helper) {
+				if (stopped) break;
+				continue;
+			}
+			long elapsed = System.currentTimeMillis() - start_time;
+			// an iteration takes a few times longer than the one before it, so
+			// there is no point starting one once the soft limit has passed
+			if (stopped || elapsed >= soft_limit || getNodes() >= limits.nodes) break;
+		}
+	}
+	/**
+	 * Starts NegaScout. When finished, we will know
+	 * the best move to make
+	 * @param original The current position of the board
+	 * @param prior_move The last moved played (by the opponent)
+	 * @param depth Search depth down the tree
+	 * @param color Unused, the side to move is taken from the position
+	 */	
+	public void beginPVS (Position original, Move prior_move, int depth, int color) {
+		search(original, SearchLimits.depth(depth));
+	}
+	/**
+	 * Starts NegaScout. When finished, we will know
+	 * the best move to make
+	 * @param original The current position of the board
+	 * @param prior_move The last moved played (by the opponent)
+	 * @param depth Search depth down the tree
+	 */
+	public void beginPVS(Position original,Move prior_move, int depth) {
+		search(original, SearchLimits.depth(depth));
+	}	
+	/**
+	 * Searches one iteration, with an aspiration window around the score of the last one.
+	 * A fail low or high widens the window on that side, doubling how far it reaches, and
+	 * searches again until the score lands inside it.
+	 * @param p The root position, left unchanged.
+	 * @param depth The depth of the iteration.
+	 * @param color 1 if white is to move, -1 if black is.
+	 */
+	private void aspire(Position p, int depth, int color) {
+		long delta = ASPIRATION_WINDOW, alpha = -INFINITY, beta = INFINITY;
+		// mate scores sit next to INFINITY, where a window around them would overflow
+		if (depth >= ASPIRATION_DEPTH && Math.abs(best_score) < INFINITY / 2) {
+			alpha = best_score - delta;
+			beta = best_score + delta;
+		}
+		while (true) {
+			long score = searchRoot(p, depth, color, alpha, beta);
+			if (aborted) return;
+			delta *= 2;
+			if (score <= alpha && alpha != -INFINITY)
+				alpha = delta > WIDEST_WINDOW ? -INFINITY : score - delta;
+			else if (score >= beta && beta != INFINITY)
+				beta = delta > WIDEST_WINDOW ? INFINITY : score + delta;
+			else return;
+		}
+	}
+	/**
+	 * Searches the moves of the root to one depth, the first with the whole window and the
+	 * rest with a null window, like the nodes below, and with forcing moves extended the same
+	 * way. A move scoring above alpha becomes
+	 * iteration_best; after a fail low iteration_best is left as it was.
+	 * @param p The root position, left unchanged.
+	 * @param depth The depth of the iteration.
+	 * @param color 1 if white is to move, -1 if black is.
+	 * @param alpha The lower bound of the window.
+	 * @param beta The upper bound of the window.
+	 * @return The score of the root, or a bound on it when outside the window.
+	 */
+	private long searchRoot(Position p, int depth, int color, long alpha, long beta) {
+		boolean first = true;
+		pv_length[0] = 0;
+		extensions[0] = 0;
+		MovePicker picker = getPicker(0);
+		picker.init(p, getHashMove(p), heuristics, 0);
+		for (int m; (m = picker.next()) != Move.NO_MOVE;) {
+			p.doMove(m);
+			// the root is a principal variation node, its forcing moves are extended as in PVS
+			int extension = extension(p, m, true);
+			if (extension > selectivity.max_extensions) extension = 0;
+			extensions[1] = extension;
+			int next = depth - 1 + extension;
+			long current;
+			if (first) current = -PVS(p, next, -beta, -alpha, -color, 1);
+			else {
+				current = -PVS(p, next, -alpha - 1, -alpha, -color, 1);
+				if (alpha < current && current < beta)
+					current = -PVS(p, next, -beta, -alpha, -color, 1);
+			}
+			p.undoMove();
+			if (aborted) return alpha;
+			// with a full window the first move is best even if every move gets mated
+			if (current > alpha || (first && alpha == -INFINITY)) {
+				iteration_best = m;
+				best_score = alpha = current;
+				updatePrincipalVariation(0, m);
+			}
+			first = false;
+			if (alpha >= beta) break;
+		}
+		return alpha;
+	}
+	/**
+	 * Makes the line of a ply its move followed by the line of the next ply.
+	 */
+	private void updatePrincipalVariation(int ply, int m) {
+		int[] line = pv[ply], next = pv[ply + 1];
+		line[ply] = m;
+		int length = pv_length[ply + 1];
+		System.arraycopy(next, ply + 1, line, ply + 1, length - ply - 1);
+		pv_length[ply] = Math.max(length, ply + 1);
+	}
+	/**
+	 * Stores the principal variation in the transposition table, so the next iteration finds
+	 * its moves as the hash moves and searches the line first.
+	 * @param p The root position, left unchanged.
+	 * @param depth The depth of the iteration.
+	 */
+	private void storePrincipalVariation(Position p, int depth) {
+		long score = best_score;
+		// the moves past depth are those of the quiescence search, which uses no hash moves
+		int length = Math.min(depth, principal_variation.length);
+		for (int i = 0; i < length; i++, score = -score) {
+			int m = principal_variation[i];
+			table.set(p.getHash(), toTable(score, i), (short) (depth - i), true, false, m, p.isWhiteToMove());
+			p.doMove(m);
+		}
+		for (int i = 0; i < length; i++) p.undoMove();
+	}
+	/**
+	 * Counts a node, and every CHECK_INTERVAL nodes looks whether the search is out of time,
+	 * or out of nodes counting those of every thread. Nothing is aborted before the first
+	 * iteration completes, so there is always a move; helpers stop as soon as they are told to.
+	 * @return Whether the running iteration has to be abandoned.
+	 */
+	private boolean checkLimits() {
+		nodes++;
+		if (master != null) {
+			// a worker adds its nodes to the search it helps as it goes, for the node limit
+			boolean interval = (nodes & (CHECK_INTERVAL - 1)) == 0;
+			if (interval) master.split_nodes.addAndGet(CHECK_INTERVAL);
+			return checkWorkerLimits(interval);
+		}
+		if ((completed_depth > 0 || helper) && (stopped || nodes >= limits.nodes
+				|| ((nodes & (CHECK_INTERVAL - 1)) == 0 && (getNodes() >= limits.nodes
+						|| System.currentTimeMillis() - start_time >= hard_limit))))
+			aborted = true;
+		return aborted;
+	}
+	/**
+	 * The checkLimits of a worker: the task gives up when its split point is cut off and when
+	 * the search it helps is stopped, and ends that search once it runs out of time or nodes.
+	 * @param interval Whether to look at the clock and the nodes searched.
+	 */
+	private boolean checkWorkerLimits(boolean interval) {
+		if (master.completed_depth == 0) return aborted = aborted || split.isCutOff();
+		if (split.isCutOff() || master.stopped) aborted = true;
+		else if (interval && (master.getNodes() >= master.limits.nodes
+				|| System.currentTimeMillis() - master.start_time >= master.hard_limit)) {
+			master.stopped = true;
+			aborted = true;
+		}
+		return aborted;
+	}
+	//Converted code from Wikipedia that I don't understand
+	//Wikipedia says NegaScout = PVS. 
+	//Well, look at those negative signs...
+	//Well, PVS is shorter than Negascout.
+	//Omitting int color parameter since it seems the default is that it be 1...
+	/**
+	 * The recurrent method in our Negascout implementation
+	 * <p>
+	 * At a node off the principal variation, with the side to move not in check, the
+	 * static evaluation decides how much of it is searched (see Selectivity): far above
+	 * beta the node is cut off at once (reverse futility pruning), far below alpha it is
+	 * left to the quiescence search (razoring), and a side still above beta after passing
+	 * is cut off too (null move pruning, verified by a reduced search of the node itself
+	 * when deep enough). Among the moves, quiet ones not giving check are skipped near
+	 * the leaves when the evaluation is far below alpha (futility pruning), and searched
+	 * with less depth the later they come (late move reductions), again at full depth if
+	 * they turn out to beat alpha.
+	 * <p>
+	 * Forcing moves are searched a ply deeper: checks, recaptures at principal variation
+	 * nodes, pushes of passed pawns far up the board, and a hash move that is singular, far
+	 * better than every other move by a search of them at half the depth. The extensions
+	 * along a path are limited by Selectivity.max_extensions.
+	 * <p>
+	 * Every node stores its result in the transposition table, as an exact score, a lower
+	 * bound when it failed high or an upper bound when it failed low. A node off the principal
+	 * variation returns at once when the table holds a result at least as deep whose bound
+	 * settles it, which is how the helper threads and the iterations before save the search work.
+	 * @param p The position we evaluate, having just made a move. Moves are made
+	 * and taken back on it, it is left unchanged when this returns.
+	 * @param depth Depth  down tree to search. Stops once depth runs out
+	 * @param alpha Alpha-value
+	 * @param beta Beta-value
+	 * @param color 1 is black CP's move, -1 is white CP's move?
+	 * @param ply The distance from the root, picking the MovePicker to use
+	 * @return The worth of position p
+	 */
+	private long PVS(Position p, int depth, long alpha, long beta, int color, int ply) {
+		pv_length[ply] = ply;
+		if (checkLimits()) return 0;
+		//Nothing more to search if we've reached infimum (lowest) depth,
+		//or the game has been drawn. Checkmates and stalemates are found
+		//below, when none of the moves turn out to be legal.
+		if (depth <= 0 || ply >= Position.MAX_PLY - 2){
+			return quiesce(p, alpha, beta, color, ply);
+		} else if (p.getDrawResult() == Position.DRAW) {
+			return 0;
+		}
+		Selectivity s = selectivity;
+		// a node searched without one of its moves tests that move, its result is not stored
+		int excluded_move = excluded[ply];
+		boolean in_check = p.isInCheck(true), pv_node = beta - alpha > 1;
+		long hash = p.getHash(), entry = excluded_move == Move.NO_MOVE ? table.get(hash) : -1;
+		// off the principal variation a search at least as deep can settle the node, by its bound
+		if (entry != -1 && !pv_node && table.getDepth(hash, entry) >= depth) {
+			long score = getTableScore(entry, ply);
+			if (((entry >> Round.EXACT_RSH) & Round.MASK_BIT) == 1) return score;
+			if (((entry >> Round.BOUND_RSH) & Round.MASK_BIT) == 1 ? score >= beta : score <= alpha)
+				return score;
+		}
+		long static_eval = in_check ? -INFINITY : evaluate(p) * color;
+		// mate scores sit next to INFINITY, where the margins mean nothing
+		if (!pv_node && !in_check && Math.abs(beta) < INFINITY / 2) {
+			if (s.reverse_futility && depth <= s.reverse_futility_depth
+					&& static_eval - s.reverse_futility_margin * depth >= beta)
+				return beta;
+			if (s.razoring && depth <= s.razor_depth
+					&& static_eval + s.razor_margin * depth <= alpha) {
+				long score = quiesce(p, alpha, beta, color, ply);
+				if (aborted) return 0;
+				if (score <= alpha) return score;
+			}
+			// no two null moves in a row, and none with only pawns left, for fear of zugzwang
+			if (s.null_move && depth >= s.null_move_depth && ply != verifying_ply
+					&& excluded_move == Move.NO_MOVE
+					&& static_eval >= beta && p.getPriorMoveCode() != Move.NO_MOVE
+					&& hasPieces(p)) {
+				int r = s.null_move_reduction + depth / s.null_move_divisor;
+				extensions[ply + 1] = extensions[ply];
+				p.doNullMove();
+				long score = -PVS(p, depth - 1 - r, -beta, -beta + 1, -color, ply + 1);
+				p.undoNullMove();
+				if (aborted) return 0;
+				if (score >= beta) {
+					if (depth < s.verification_depth) return beta;
+					int verifying = verifying_ply;
+					verifying_ply = ply;
+					score = PVS(p, depth - r, alpha, beta, color, ply);
+					verifying_ply = verifying;
+					if (aborted) return 0;
+					if (score >= beta) return beta;
+				}
+			}
+		}
+		int hash_move = getHashMove(p), singular = Move.NO_MOVE;
+		if (s.singular_extension && depth >= s.singular_depth && hash_move != Move.NO_MOVE
+				&& excluded_move == Move.NO_MOVE && extensions[ply] < s.max_extensions) {
+			// the score has to come from a search nearly as deep, be exact or a lower bound,
+			// and mean more than a mate
+			if (entry != -1 && table.getDepth(hash, entry) >= depth - 3
+					&& (((entry >> Round.EXACT_RSH) | (entry >> Round.BOUND_RSH)) & Round.MASK_BIT) == 1
+					&& Math.abs(getTableScore(entry, ply)) < INFINITY / 2) {
+				long singular_beta = getTableScore(entry, ply) - s.singular_margin * depth;
+				excluded[ply] = hash_move;
+				long score = PVS(p, depth / 2, singular_beta - 1, singular_beta, color, ply);
+				excluded[ply] = Move.NO_MOVE;
+				if (aborted) return 0;
+				if (score < singular_beta) singular = hash_move;
+			}
+		}
+		boolean futile = !pv_node && !in_check && s.futility && depth <= s.futility_depth
+				&& static_eval + s.futility_margin * depth <= alpha;
+		int searched = 0, best = Move.NO_MOVE;
+		MovePicker picker = getPicker(ply);
+		picker.init(p, hash_move, heuristics, ply);
+		for (int m; (m = picker.next()) != Move.NO_MOVE;) {
+			if (m == excluded_move) continue;
+			if (searched > 0 && canSplit(depth, alpha, beta)) {
+				SplitPoint sp = split(p, picker, m, depth, alpha, beta, color, ply);
+				if (aborted) return 0;
+				if (sp.getAlpha() > alpha) {
+					alpha = sp.getAlpha();
+					best = sp.getBestMove();
+					int[] line = sp.getLine();
+					pv[ply][ply] = best;
+					System.arraycopy(line, 0, pv[ply], ply + 1, line.length);
+					pv_length[ply] = ply + 1 + line.length;
+					if (alpha >= beta) {
+						table.set(hash, toTable(alpha, ply), (short) depth, false, true, best, p.isWhiteToMove());
+						if (!MovePicker.isTactical(best)) heuristics.update(p, ply, best, depth);
+						return alpha;
+					}
+				}
+				break;
+			}
+			//p is the initial position. We get the new positions by making
+			//the moves the picker hands out, and taking them back afterwards.
+			//The picker generates its moves in stages, so the quiet moves of
+			//a node cut off by its hash move or a capture are never generated.
+			p.doMove(m);
+			int extension = m == singular ? 1 : extension(p, m, pv_node);
+			if (extensions[ply] + extension > s.max_extensions) extension = 0;
+			extensions[ply + 1] = extensions[ply] + extension;
+			int next = depth - 1 + extension;
+			boolean quiet = extension == 0 && !in_check && !MovePicker.isTactical(m) 
+					&& !p.isInCheck(true);
+			if (futile && quiet && searched > 0) {
+				p.undoMove();
+				continue;
+			}
+			long score;
+			if (searched == 0) score = -PVS(p, next, -beta, -alpha, -color, ply + 1);
+			else {
+				int r = quiet ? s.reduction(depth, searched) : 0;
+				if (pv_node) r--;
+				r = Math.max(0, Math.min(r, depth - 2));
+				// a reduced null window search first, then the full depth if it beats alpha
+				score = r == 0 ? alpha + 1 : -PVS(p, next - r, -alpha - 1, -alpha, -color, ply + 1);
+				if (score > alpha)
+					score = -PVS(p, next, -alpha - 1, -alpha, -color, ply + 1);
+				if ((alpha < score) && (score < beta)) 
+					score =- PVS(p, next, -beta, -alpha, -color, ply + 1);
+			}
+			searched++;
+			p.undoMove();
+			if (aborted) return 0;
+			if (score > alpha) {
+				alpha = score;
+				best = m;
+				updatePrincipalVariation(ply, m);
+			}
+			if (alpha >= beta) {
+				if (excluded_move == Move.NO_MOVE)
+					table.set(hash, toTable(score, ply), (short) depth, false, true, m, p.isWhiteToMove());
+				if (!MovePicker.isTactical(m)) heuristics.update(p, ply, m, depth);
+				return alpha;
+			}
+		}
+		// with its only move left out a node has nothing to beat
+		if (searched == 0 && excluded_move != Move.NO_MOVE) return alpha;
+		if (searched == 0) {
+			// no legal moves, checkmate or stalemate
+			if (!in_check) return 0;
+			return -(MATE - ply);
+		}
+		// exact if a move beat alpha, otherwise an upper bound, keeping the hash move
+		if (excluded_move == Move.NO_MOVE) {
+			long stored = toTable(alpha, ply);
+			if (best != Move.NO_MOVE) table.set(hash, stored, (short) depth, true, false, best, p.isWhiteToMove());
+			else table.set(hash, stored, (short) depth, false, false, hash_move, p.isWhiteToMove());
+		}
+		return alpha;
+	}
+	/**
+	 * The quiescence search, which PVS goes on with once its depth has run out, so that no
+	 * position is evaluated in the middle of an exchange. Only captures and queen promotions
+	 * are searched, and the side to move may instead stand pat on the evaluation. Captures
+	 * that cannot lift the score to alpha even with DELTA_MARGIN to spare are skipped (delta
+	 * pruning), and so are those the static exchange evaluation says lose material. A side in
+	 * check cannot stand pat and searches every move.
+	 * @param p The position, left unchanged.
+	 * @param alpha Alpha-value
+	 * @param beta Beta-value
+	 * @param color 1 if white is to move, -1 if black is.
+	 * @param ply The distance from the root.
+	 * @return The worth of position p
+	 */
+	private long quiesce(Position p, long alpha, long beta, int color, int ply) {
+		pv_length[ply] = ply;
+		if (checkLimits()) return 0;
+		boolean in_check = p.isInCheck(true);
+		long stand_pat = evaluate(p) * color;
+		if (ply >= Position.MAX_PLY - 2) return stand_pat;
+		if (!in_check) {
+			if (stand_pat >= beta) return stand_pat;
+			if (stand_pat > alpha) alpha = stand_pat;
+		}
+		boolean first = true;
+		MovePicker picker = getPicker(ply);
+		if (in_check) picker.init(p, Move.NO_MOVE, heuristics, ply);
+		else picker.initCaptures(p);
+		for (int m; (m = picker.next()) != Move.NO_MOVE;) {
+			first = false;
+			if (!in_check) {
+				byte mod = Move.modifierOf(m);
+				// under-promotions are left to the full search
+				if ((mod >= 6 && mod <= 8) || (mod >= 16 && mod <= 18)) continue;
+				long gain = Piece.getValue(Move.capturedOf(m));
+				if (mod == 9 || mod == 19) gain += Piece.getValue(Piece.QUEEN) - Piece.getValue(Piece.PAWN);
+				if (stand_pat + gain + DELTA_MARGIN <= alpha) continue;
+				if (p.staticExchange(m) < 0) continue;
+			}
+			p.doMove(m);
+			long score = -quiesce(p, -beta, -alpha, -color, ply + 1);
+			p.undoMove();
+			if (aborted) return 0;
+			if (score > alpha) {
+				alpha = score;
+				updatePrincipalVariation(ply, m);
+				if (alpha >= beta) return alpha;
+			}
+		}
+		if (in_check && first)
+			return -(MATE - ply);
+		return alpha;
+	}
+	/**
+	 * Returns the plies a move is extended by: one for a check, a recapture at a principal
+	 * variation node or a push of a passed pawn to Selectivity.passed_pawn_rank, none otherwise.
+	 * @param p The position, with the move made on it.
+	 * @param m The packed move.
+	 * @param pv_node Whether the move is made at a principal variation node.
+	 */
+	private int extension(Position p, int m, boolean pv_node) {
+		Selectivity s = selectivity;
+		if (s.check_extension && p.isInCheck(true)) return 1;
+		int prior = p.getEarlierMoveCode();
+		if (s.recapture_extension && pv_node && prior != Move.NO_MOVE 
+				&& Move.capturedOf(prior) != Piece.NULL && Move.capturedOf(m) != Piece.NULL
+				&& Move.endOf(m) == Move.endOf(prior))
+			return 1;
+		if (s.passed_pawn_extension && Move.pieceOf(m) == Piece.PAWN 
+				&& !MovePicker.isTactical(m) && isPassed(Move.endOf(m), !p.isWhiteToMove(), p)
+				&& (p.isWhiteToMove() ? 7 - (Move.endOf(m) >> 4) : Move.endOf(m) >> 4) >= s.passed_pawn_rank)
+			return 1;
+		return 0;
+	}
+	/**
+	 * Returns whether a pawn is passed, with no enemy pawn in front of it on its own file or
+	 * the files next to it.
+	 * @param square The 0x88 square of the pawn.
+	 * @param white Whether the pawn is white.
+	 * @param p The position.
+	 */
+	private static boolean isPassed(byte square, boolean white, Position p) {
+		int rank = square >> 4, file = square & 7;
+		long files = 0;
+		for (int f = Math.max(0, file - 1); f <= Math.min(7, file + 1); f++) files |= FILE_A << f;
+		// the ranks in front of the pawn, a pawn never stands on the last one
+		long front = white ? -1L << ((rank + 1) * 8) : (1L << (rank * 8)) - 1;
+		return (p.getBitboard(Piece.PAWN, white ? Piece.BLACK : Piece.WHITE) & files & front) == 0;
+	}
+	/**
+	 * Returns whether the side to move has a piece other than pawns and its king.
+	 */
+	private static boolean hasPieces(Position p) {
+		return p.getPhase(p.isWhiteToMove()) > 0;
+	}
+	/**
+	 * Evaluates a position from white's side, see Crescent.evaluate. The evaluations are not
+	 * cached: the transposition table holds search results, and a cache of their own was
+	 * measured no faster, few positions being evaluated twice.
+	 */
+	private long evaluate(Position p) {
+		return eval (p, Position.NO_RESULT);
+	}
+	/**
+	 * Returns whether the rest of the moves of a node are searched in parallel: in SPLIT_POINTS
+	 * mode, at principal variation nodes with enough depth left.
+	 */
+	private boolean canSplit(int depth, long alpha, long beta) {
+		return depth >= MIN_SPLIT_DEPTH && beta - alpha > 1
+				&& (master == null ? split_pool : master.split_pool) != null;
+	}
+	/**
+	 * Searches the remaining moves of a node in parallel, one task for each, and waits for them.
+	 * @param p The position of the node, left unchanged.
+	 * @param picker The picker of the node, which is run out.
+	 * @param m The first of the moves left.
+	 * @return The split point, holding the best of the moves.
+	 */
+	private SplitPoint split(Position p, MovePicker picker, int m, int depth, long alpha, long beta,
+			int color, int ply) {
+		final Pine owner = master == null ? this : master;
+		final SplitPoint sp = new SplitPoint(split, depth, ply, extensions[ply], color, alpha, beta);
+		final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+		for (; m != Move.NO_MOVE; m = picker.next()) {
+			final Position copy = p.copy();
+			final int move = m;
+			tasks.add(new RecursiveAction() {
+				protected void compute() {
+					Pine worker = owner.idle_workers.poll();
+					if (worker == null) worker = new Pine(false, owner);
+					try {
+						worker.searchSplit(sp, copy, move);
+					} finally {
+						owner.idle_workers.add(worker);
+					}
+				}
+			});
+		}
+		Thread current = Thread.currentThread();
+		if (current instanceof ForkJoinWorkerThread
+				&& ((ForkJoinWorkerThread) current).getPool() == owner.split_pool)
+			ForkJoinTask.invokeAll(tasks);
+		else owner.split_pool.invoke(new RecursiveAction() {
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+		// the tasks stop the search they help when they run out of time
+		if (master == null) {
+			if (stopped && completed_depth > 0) aborted = true;
+		} else if (!aborted) checkWorkerLimits(false);
+		return sp;
+	}
+	/**
+	 * Searches one move of a split point, as the task of a worker.
+	 * @param sp The split point.
+	 * @param p A copy of the position of the split point, which the move is made on.
+	 * @param m The packed move.
+	 */
+	private void searchSplit(SplitPoint sp, Position p, int m) {
+		split = sp;
+		selectivity = master.selectivity;
+		aborted = false;
+		verifying_ply = -1;
+		nodes = 0;
+		if (sp.isCutOff()) return;
+		int ply = sp.ply;
+		long alpha = sp.getAlpha();
+		p.doMove(m);
+		int extension = sp.extensions < selectivity.max_extensions ? extension(p, m, true) : 0;
+		extensions[ply + 1] = sp.extensions + extension;
+		int next = sp.depth - 1 + extension;
+		long score = -PVS(p, next, -alpha - 1, -alpha, -sp.color, ply + 1);
+		if (!aborted && alpha < score && score < sp.beta)
+			score = -PVS(p, next, -sp.beta, -alpha, -sp.color, ply + 1);
+		if (!aborted) sp.update(score, m, pv[ply + 1], pv_length[ply + 1]);
+		// the rest were added every CHECK_INTERVAL nodes
+		master.split_nodes.addAndGet(nodes & (CHECK_INTERVAL - 1));
+		split = null;
+	}
+	/**
+	 * Returns the MovePicker of a ply, making it the first time it is needed.
+	 */
+	private MovePicker getPicker(int ply) {
+		if (pickers[ply] == null) pickers[ply] = new MovePicker();
+		return pickers[ply];
+	}
+	/**
+	 * Returns a score as it is stored in the transposition table. The score of a mate counts
+	 * the plies to it from the root, which do not fit in an entry and mean nothing at another
+	 * ply, so it is stored as Round.MAX_SCORE less the plies to the mate from the node instead.
+	 * Scores beyond any mate, bounds of INFINITY, are stored as a mate on the node itself.
+	 * @param score The score, counting from the root.
+	 * @param ply The distance of the node from the root.
+	 */
+	private static long toTable(long score, int ply) {
+		if (Math.abs(score) < MATE_BOUND) return score;
+		long distance = Math.max(0, MATE - Math.abs(score) - ply);
+		return score > 0 ? Round.MAX_SCORE - distance : distance - Round.MAX_SCORE;
+	}
+	/**
+	 * Returns the score of an entry of the transposition table, turning a mate stored by
+	 * toTable back into a score counting from the root.
+	 * @param entry The descriptor of the entry.
+	 * @param ply The distance of the node from the root.
+	 */
+	private static long getTableScore(long entry, int ply) {
+		long score = entry >> Round.SCORE_RSH;
+		if (Math.abs(score) < Round.MAX_SCORE - Position.MAX_PLY) return score;
+		long distance = Round.MAX_SCORE - Math.abs(score) + ply;
+		return score > 0 ? MATE - distance : distance - MATE;
+	}
+	/**
+	 * Returns the move the transposition table holds for a position.
+	 * @return The packed move, Move.NO_MOVE if the position is not in the table.
+	 */
+	private static int getHashMove(Position p) {
+		long entry = table.get(p.getHash());
+		if (entry == -1) return Move.NO_MOVE;
+		return (int) ((entry >> Round.MOVE_RSH) & Round.MASK_MOVE);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package tree;
+
+/**
+ * The limits of a search: how deep it may go, how long it may take and how many nodes it may
+ * visit. The search deepens one ply at a time and stops at whichever limit it reaches first.
+ * The fields can be combined freely, the factory methods set up the common cases.
+ * <p>
+ * A clock limit gives two times. The soft limit is the share of the remaining time meant for
+ * this move: no new iteration is started once it has passed. The hard limit is the most the
+ * move may take, and stops an iteration half way.
+ * @author Spork Innovation Technologies
+ */
+public class SearchLimits {
+	//----------------------Constants----------------------
+	/** The deepest iteration searched. */
+	public static final int MAX_DEPTH = 64;
+	/** The value of a time or node limit that is not set. */
+	public static final long NONE = Long.MAX_VALUE;
+	/** The number of moves the remaining time is shared between when it is not known. */
+	private static final int MOVES_TO_GO = 30;
+	/** The most a single move may use of the remaining time, as a fraction. */
+	private static final int MAX_SHARE = 3;
+	/** How many times the soft limit the hard limit may be. */
+	private static final int HARD_FACTOR = 4;
+	/** The time, in milliseconds, kept back for the engine and interface to pass the move. */
+	private static final long OVERHEAD = 20;
+	//----------------------End of Constants----------------------
+
+	//----------------------Instance Variables----------------------
+	/** The deepest iteration to search. */
+	public int depth = MAX_DEPTH;
+	/** The time to search for, in milliseconds. */
+	public long movetime = NONE;
+	/** The time left on white's clock, in milliseconds. */
+	public long wtime = NONE;
+	/** The time left on black's clock, in milliseconds. */
+	public long btime = NONE;
+	/** White's increment per move, in milliseconds. */
+	public long winc;
+	/** Black's increment per move, in milliseconds. */
+	public long binc;
+	/** The number of moves until the next time control, 0 if there is none. */
+	public int movestogo;
+	/** The most nodes to search. */
+	public long nodes = NONE;
+	//----------------------End of Instance Variables----------------------
+
+	//----------------------Constructors----------------------
+	/**
+	 * Constructs limits that let the search run to MAX_DEPTH.
+	 */
+	public SearchLimits() {
+	}
+	/**
+	 * Returns limits for a search to a fixed depth.
+	 * @param depth The depth to search to.
+	 */
+	public static SearchLimits depth(int depth) {
+		SearchLimits l = new SearchLimits();
+		l.depth = depth;
+		return l;
+	}
+	/**
+	 * Returns limits for a search of a fixed time.
+	 * @param movetime The time to search for, in milliseconds.
+	 */
+	public static SearchLimits movetime(long movetime) {
+		SearchLimits l = new SearchLimits();
+		l.movetime = movetime;
+		return l;
+	}
+	/**
+	 * Returns limits for a search on the clock.
+	 * @param wtime The time left on white's clock, in milliseconds.
+	 * @param btime The time left on black's clock, in milliseconds.
+	 * @param winc White's increment per move, in milliseconds.
+	 * @param binc Black's increment per move, in milliseconds.
+	 * @param movestogo The number of moves until the next time control, 0 if there is none.
+	 */
+	public static SearchLimits clock(long wtime, long btime, long winc, long binc, int movestogo) {
+		SearchLimits l = new SearchLimits();
+		l.wtime = wtime;
+		l.btime = btime;
+		l.winc = winc;
+		l.binc = binc;
+		l.movestogo = movestogo;
+		return l;
+	}
+	/**
+	 * Returns limits for a search of a fixed number of nodes.
+	 * @param nodes The most nodes to search.
+	 */
+	public static SearchLimits nodes(long nodes) {
+		SearchLimits l = new SearchLimits();
+		l.nodes = nodes;
+		return l;
+	}
+	//----------------------End of Constructors----------------------
+
+	//----------------------Methods----------------------
+	/**
+	 * Returns the time after which no new iteration is started.
+	 * @param white Whether white is the side searching.
+	 * @return The soft limit in milliseconds, NONE if the time is not limited.
+	 */
+	public long softLimit(boolean white) {
+		if (movetime != NONE) return movetime;
+		long time = white ? wtime : btime, inc = white ? winc : binc;
+		if (time == NONE) return NONE;
+		int moves = movestogo > 0 ? movestogo : MOVES_TO_GO;
+		long share = time / moves + inc * 3 / 4;
+		return Math.max(1, Math.min(share, time / MAX_SHARE - OVERHEAD));
+	}
+	/**
+	 * Returns the time after which the search is stopped, even half way through an iteration.
+	 * @param white Whether white is the side searching.
+	 * @return The hard limit in milliseconds, NONE if the time is not limited.
+	 */
+	public long hardLimit(boolean white) {
+		if (movetime != NONE) return Math.max(1, movetime - OVERHEAD);
+		long time = white ? wtime : btime;
+		if (time == NONE) return NONE;
+		long soft = softLimit(white);
+		return Math.max(soft, Math.min(soft * HARD_FACTOR, time - OVERHEAD));
+	}
+	//----------------------End of Methods----------------------
+}
@@ -0,0 +1,137 @@
+package tree;
+
+/**
+ * The thresholds of the selective part of the search: the pruning and reductions that let it
+ * skip the parts of the tree that are unlikely to matter, none of which apply at principal
+ * variation nodes or to a side in check, and the extensions that let it look further down
+ * forcing lines, so they are not cut off at the horizon. See Pine.PVS for where each one is
+ * made. Margins are in centipawns and depths in plies. The defaults are those the engine
+ * plays with, none() turns everything off for a plain full width search.
+ * @author Spork Innovation Technologies
+ */
+public class Selectivity {
+	//----------------------Constants----------------------
+	/** The natural logarithms of 0 to Position.MAX_PLY, for the late move reductions. */
+	private static final double[] LOGS = new double[rules.Position.MAX_PLY + 1];
+	static {
+		for (int i = 1; i < LOGS.length; i++) LOGS[i] = Math.log(i);
+	}
+	//----------------------End of Constants----------------------
+
+	//----------------------Instance Variables----------------------
+	/**
+	 * Whether a side may pass (null move pruning): when it is still above beta after passing
+	 * and a search reduced by null_move_reduction, the node is cut off. Never done by a side
+	 * with only pawns left, whose zugzwangs would make passing look too good.
+	 */
+	public boolean null_move = true;
+	/** The shallowest depth a side may pass at. */
+	public int null_move_depth = 3;
+	/** The reduction of the search after a null move, on top of the ply of the move itself. */
+	public int null_move_reduction = 2;
+	/** The depth per further ply of null move reduction. */
+	public int null_move_divisor = 4;
+	/**
+	 * The shallowest depth at which a null move cutoff is verified by searching the node itself,
+	 * reduced, with null moves left out for the side to move.
+	 */
+	public int verification_depth = 6;
+
+	/** Whether the quiet moves searched late are searched with less depth first. */
+	public boolean late_move_reductions = true;
+	/** The shallowest depth moves are reduced at. */
+	public int lmr_depth = 3;
+	/** The number of moves searched at full depth before the rest are reduced. */
+	public int lmr_moves = 3;
+	/** The reduction is ln(depth) * ln(moves searched) / lmr_divisor. */
+	public double lmr_divisor = 2.0;
+
+	/**
+	 * Whether a node whose evaluation is above beta by a margin for each ply left is cut off
+	 * without searching (reverse futility pruning).
+	 */
+	public boolean reverse_futility = true;
+	/** The deepest depth of reverse futility pruning. */
+	public int reverse_futility_depth = 3;
+	/** The margin of reverse futility pruning, per ply. */
+	public int reverse_futility_margin = 120;
+
+	/**
+	 * Whether a node whose evaluation is below alpha by a margin for each ply left is only
+	 * given the quiescence search, and returns its score if that stays below alpha (razoring).
+	 */
+	public boolean razoring = true;
+	/** The deepest depth of razoring. */
+	public int razor_depth = 2;
+	/** The margin of razoring, per ply. */
+	public int razor_margin = 300;
+
+	/**
+	 * Whether the quiet moves not giving check of a node whose evaluation is below alpha by a
+	 * margin for each ply left are skipped (futility pruning). The first move is always searched.
+	 */
+	public boolean futility = true;
+	/** The deepest depth of futility pruning. */
+	public int futility_depth = 2;
+	/** The margin of futility pruning, per ply. */
+	public int futility_margin = 150;
+
+	/** Whether a move giving check is searched a ply deeper. */
+	public boolean check_extension = true;
+	/**
+	 * Whether a capture on the square the move before it captured on is searched a ply deeper,
+	 * at principal variation nodes.
+	 */
+	public boolean recapture_extension = true;
+	/** Whether a push of a passed pawn to passed_pawn_rank or further is searched a ply deeper. */
+	public boolean passed_pawn_extension = true;
+	/** The rank of a passed pawn push extension, counted from 0 on the side of the pawn. */
+	public int passed_pawn_rank = 6;
+	/**
+	 * Whether the hash move is searched a ply deeper when it is singular: when every other move,
+	 * searched with half the depth, falls short of its table score by a margin for each ply left.
+	 */
+	public boolean singular_extension = true;
+	/** The shallowest depth of the singular extension. */
+	public int singular_depth = 6;
+	/** The margin of the singular extension, per ply. */
+	public int singular_margin = 2;
+	/**
+	 * The most plies any one path from the root is extended by, so that the extensions cannot
+	 * make the tree explode.
+	 */
+	public int max_extensions = 16;
+	//----------------------End of Instance Variables----------------------
+
+	//----------------------Constructors----------------------
+	/**
+	 * Constructs the default thresholds.
+	 */
+	public Selectivity() {
+	}
+	/**
+	 * Returns thresholds with every pruning, reduction and extension turned off.
+	 */
+	public static Selectivity none() {
+		Selectivity s = new Selectivity();
+		s.null_move = s.late_move_reductions = s.reverse_futility = s.razoring = s.futility = false;
+		s.check_extension = s.recapture_extension = s.passed_pawn_extension = false;
+		s.singular_extension = false;
+		return s;
+	}
+	//----------------------End of Constructors----------------------
+
+	//----------------------Methods----------------------
+	/**
+	 * Returns the reduction of a late quiet move.
+	 * @param depth The remaining depth of the node.
+	 * @param moves The number of moves searched before it at the node.
+	 * @return The number of plies the move is reduced by, 0 if it is searched at full depth.
+	 */
+	public int reduction(int depth, int moves) {
+		if (!late_move_reductions || depth < lmr_depth || moves < lmr_moves) return 0;
+		return (int) (LOGS[Math.min(depth, LOGS.length - 1)] * LOGS[Math.min(moves, LOGS.length - 1)]
+				/ lmr_divisor);
+	}
+	//----------------------End of Methods----------------------
+}
@@ -0,0 +1,92 @@
+package tree;
+
+import java.util.Arrays;
+
+/**
+ * A node whose younger brothers are searched in parallel. Once the eldest child of a principal
+ * variation node has been searched without a cutoff, the node becomes a split point and each of
+ * its remaining moves is searched by a task of its own. The tasks share the bounds of the node
+ * through the split point: a task that raises alpha does so for every task that starts after
+ * it, and one that reaches beta marks the split point cut off, after which the other tasks
+ * below it, and below any split point under it, give up.
+ * @author Spork Innovation Technologies
+ */
+final class SplitPoint {
+	//----------------------Instance Variables----------------------
+	/** The split point the node lies below, null if it is searched by the main thread. */
+	final SplitPoint parent;
+	final int depth, ply, extensions, color;
+	final long beta;
+	private volatile long alpha;
+	private volatile boolean cut_off;
+	private int best_move;
+	private int[] line = new int[0];
+	//----------------------End of Instance Variables----------------------
+
+	//----------------------Constructors----------------------
+	/**
+	 * Constructs a split point.
+	 * @param parent The split point the node lies below, null if there is none.
+	 * @param depth The remaining depth of the node.
+	 * @param ply The distance of the node from the root.
+	 * @param extensions The plies of extension along the path to the node.
+	 * @param color 1 if white is to move at the node, -1 if black is.
+	 * @param alpha The alpha of the node once its eldest child has been searched.
+	 * @param beta The beta of the node.
+	 */
+	SplitPoint(SplitPoint parent, int depth, int ply, int extensions, int color, long alpha,
+			long beta) {
+		this.parent = parent;
+		this.depth = depth;
+		this.ply = ply;
+		this.extensions = extensions;
+		this.color = color;
+		this.alpha = alpha;
+		this.beta = beta;
+	}
+	//----------------------End of Constructors----------------------
+
+	//----------------------Methods----------------------
+	/**
+	 * Returns the best score found at the node so far.
+	 */
+	long getAlpha() {
+		return alpha;
+	}
+	/**
+	 * Returns the move that raised alpha last, Move.NO_MOVE if none of the tasks did.
+	 */
+	synchronized int getBestMove() {
+		return best_move;
+	}
+	/**
+	 * Returns the principal variation below the best move.
+	 */
+	synchronized int[] getLine() {
+		return line;
+	}
+	/**
+	 * Returns whether the search of this node, or of a node it lies below, has been cut off.
+	 */
+	boolean isCutOff() {
+		for (SplitPoint sp = this; sp != null; sp = sp.parent)
+			if (sp.cut_off) return true;
+		return false;
+	}
+	/**
+	 * Reports the score of a move. Raises alpha if the score is better, and cuts the node off
+	 * if it reaches beta.
+	 * @param score The score of the move, from the side to move at the node.
+	 * @param move The packed move.
+	 * @param pv The principal variation table row of the child, holding the line below the move.
+	 * @param length The length of that row.
+	 */
+	synchronized void update(long score, int move, int[] pv, int length) {
+		if (score <= alpha || cut_off) return;
+		alpha = score;
+		best_move = move;
+		line = Arrays.copyOfRange(pv, ply + 1, Math.max(length, ply + 1));
+		if (score >= beta) cut_off = true;
+	}
+	//----------------------End of Methods----------------------
+}
@@ -151,7 +151,6 @@ public class JChessBoard extends JPanel {
 							registerHumanMove(new Move(clicked_square,
 									end_square));
 						if (ai_turn) {
-							 tree.setCurrentLeaf(p, prior_move);
                              //tree.NegaMax(p, prior_move, depth);
 							 tree.beginPVS(p, prior_move, depth);
                              registerAIMove(tree.getBestMove());
@@ -178,7 +177,7 @@ public class JChessBoard extends JPanel {
 		moveNumber = 1;
 		p = new Position();
 		JChessBoard.PVP = PVP;
-		tree = new Pine(p);
+		tree = new Pine();
 	}
 	/**
 	 * Initialises the board from a FENPlus string.
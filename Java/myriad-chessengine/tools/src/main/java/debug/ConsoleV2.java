@@ -148,6 +148,14 @@ public class ConsoleV2 extends JFrame{
 			runningThread = new Thread (r);
 			runningThread.setPriority(Thread.MAX_PRIORITY);
 			runningThread.start();
+		} else if (id_arg[0].equals("savehash")){
+			savehash r = new savehash(this, current, id_arg);
+			runningThread = new Thread (r);
+			runningThread.start();
+		} else if (id_arg[0].equals("loadhash")){
+			loadhash r = new loadhash(this, current, id_arg);
+			runningThread = new Thread (r);
+			runningThread.start();
 		}
 		else console.append("<< Input not recognized. Input 'help' for the help screen.\n");
 		console.setCaretPosition(console.getText().length() - 1);
@@ -169,4 +177,4 @@ public class ConsoleV2 extends JFrame{
 			}
 		});
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+package debug;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import rules.*;
+import tables.PerftTable;
+
+/**
+ * A parallel performance test. The moves of the root position are split across a fork-join
+ * pool, and each worker counts the tree below its move on its own copy of the position, with
+ * its own move lists and counters, so nothing is shared while counting but the perft table.
+ * When only the node count is wanted the last ply is counted in bulk from the number of legal
+ * moves, and the counts of positions already seen are read back from a PerftTable keyed on
+ * the Zobrist hash and the remaining depth.
+ * @author Spork Innovation Technologies
+ */
+public class PerftEngine {
+	//----------------------Constants----------------------
+	/** The log, base 2, of the number of entries of the default perft table. */
+	public static final int DEFAULT_TABLE_BITS = 20;
+	/** The smallest remaining depth whose counts are stored in the perft table. */
+	private static final int MIN_TABLE_DEPTH = 2;
+	//----------------------End of Constants----------------------
+
+	//----------------------Instance Variables----------------------
+	private final ForkJoinPool pool;
+	private final PerftTable table;
+	//----------------------End of Instance Variables----------------------
+
+	//----------------------Constructors----------------------
+	/**
+	 * Constructs a perft engine using every available processor and a perft table
+	 * of the default size.
+	 */
+	public PerftEngine() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_TABLE_BITS);
+	}
+	/**
+	 * Constructs a perft engine.
+	 * @param threads The number of worker threads.
+	 * @param table_bits The log, base 2, of the number of perft table entries, or 0
+	 * to count every node without a table.
+	 */
+	public PerftEngine(int threads, int table_bits) {
+		pool = new ForkJoinPool(threads);
+		table = table_bits > 0 ? new PerftTable(table_bits) : null;
+	}
+	//----------------------End of Constructors----------------------
+
+	//----------------------Methods----------------------
+	/**
+	 * Counts the leaf nodes of a position to a certain depth.
+	 * @param p The position, which is left unchanged.
+	 * @param depth The depth of the test.
+	 * @param detailed Whether the captures, checks and so on of the leaves are counted
+	 * too. Every leaf is then visited, without bulk counting or the perft table.
+	 * @return The counts of the test.
+	 */
+	public Counts perft(Position p, int depth, boolean detailed) {
+		Counts total = new Counts();
+		if (depth == 0) {
+			total.nodes = 1;
+			return total;
+		}
+		for (Counts c : split(p, depth, detailed)) total.add(c);
+		return total;
+	}
+	/**
+	 * Counts the leaf nodes below each move of a position.
+	 * @param p The position, which is left unchanged.
+	 * @param depth The depth of the test, at least 1.
+	 * @return The node counts, in the order of the moves of p.getMoves().
+	 */
+	public long[] divide(Position p, int depth) {
+		Counts[] split = split(p, depth, false);
+		long[] nodes = new long[split.length];
+		for (int i = 0; i < split.length; i++) nodes[i] = split[i].nodes;
+		return nodes;
+	}
+	/**
+	 * Stops the worker threads of <i>this</i> engine, it cannot be used afterwards.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+	//----------------------End of Methods----------------------
+
+	//----------------------Helper Methods----------------------
+	/**
+	 * Runs one task for each move of a position, and returns their counts in the order
+	 * of p.getMoves().
+	 */
+	private Counts[] split(final Position p, final int depth, final boolean detailed) {
+		final int[] moves = p.getMoves();
+		return pool.invoke(new RecursiveTask<Counts[]>() {
+			protected Counts[] compute() {
+				RootTask[] tasks = new RootTask[moves.length];
+				for (int i = 0; i < moves.length; i++)
+					tasks[i] = new RootTask(p, moves[i], depth, detailed);
+				invokeAll(tasks);
+				Counts[] counts = new Counts[moves.length];
+				for (int i = 0; i < moves.length; i++) counts[i] = tasks[i].join();
+				return counts;
+			}
+		});
+	}
+	//----------------------End of Helper Methods----------------------
+
+	//----------------------Inner Classes----------------------
+	/**
+	 * The counts of a performance test.
+	 */
+	public static class Counts {
+		public long nodes;
+		public long captures;
+		public long en_passants;
+		public long castles;
+		public long promotions;
+		public long checks;
+		public long checkmates;
+
+		/**
+		 * Adds the counts of another test to <i>this</i> one.
+		 * @param c The counts to add.
+		 */
+		public void add(Counts c) {
+			nodes += c.nodes;
+			captures += c.captures;
+			en_passants += c.en_passants;
+			castles += c.castles;
+			promotions += c.promotions;
+			checks += c.checks;
+			checkmates += c.checkmates;
+		}
+	}
+	/**
+	 * Counts the tree below one root move, on a copy of the root position owned by the task.
+	 */
+	private class RootTask extends RecursiveTask<Counts> {
+		private static final long serialVersionUID = 1L;
+		private final Position root;
+		private final int move;
+		private final int depth;
+		private final boolean detailed;
+		private Position work;
+		private int[][] move_lists;
+		private Counts counts;
+
+		RootTask(Position root, int move, int depth, boolean detailed) {
+			this.root = root;
+			this.move = move;
+			this.depth = depth;
+			this.detailed = detailed;
+		}
+		protected Counts compute() {
+			work = root.copy();
+			move_lists = new int[depth][Position.MAX_MOVES];
+			counts = new Counts();
+			work.doMove(move);
+			counts.nodes = count(depth - 1);
+			return counts;
+		}
+		/**
+		 * Counts the leaf nodes below the work position, making and taking back
+		 * the moves on it.
+		 */
+		private long count(int depth) {
+			if (depth == 0) {
+				if (detailed) tally();
+				return 1;
+			}
+			boolean hashed = table != null && !detailed && depth >= MIN_TABLE_DEPTH;
+			long hash = work.getHash();
+			if (hashed) {
+				long nodes = table.get(hash, depth);
+				if (nodes != PerftTable.MISS) return nodes;
+			}
+			int[] list = move_lists[depth];
+			int n = work.generateMoves(list, 0);
+			if (depth == 1 && !detailed) return n;
+			long nodes = 0;
+			for (int i = 0; i < n; i++) {
+				work.doMove(list[i]);
+				nodes += count(depth - 1);
+				work.undoMove();
+			}
+			if (hashed) table.put(hash, depth, nodes);
+			return nodes;
+		}
+		/**
+		 * Counts the kind of move that led to the work position, and whether
+		 * it gives check or mate.
+		 */
+		private void tally() {
+			switch (Move.modifierOf(work.getPriorMoveCode())) {
+			case 10: counts.captures++; break;
+			case 6: case 7: case 8: case 9: counts.promotions++; break;
+			case 16: case 17: case 18: case 19: counts.promotions++; counts.captures++; break;
+			case 1: case 2: case 3: case 4: counts.castles++; break;
+			case 5: counts.en_passants++; counts.captures++; break;
+			}
+			if (work.isInCheck(false)) {
+				counts.checks++;
+				if (work.generateMoves(move_lists[0], 0) == 0) counts.checkmates++;
+			}
+		}
+	}
+	//----------------------End of Inner Classes----------------------
+}
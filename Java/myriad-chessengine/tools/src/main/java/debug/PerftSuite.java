@@ -0,0 +1,128 @@
+package debug;
+
+import java.io.*;
+import java.text.DecimalFormat;
+import java.util.*;
+
+import rules.*;
+
+/**
+ * A command line perft runner, for checking the move generator without the console window.
+ * It reads an EPD file where each line is a FEN followed by the expected node counts, as in
+ * "&lt;fen&gt; ;D1 20 ;D2 400", runs a perft for every count and prints the nodes, the speed
+ * and whether the count matched. The exit code is 0 if every count matched, 1 if one did
+ * not and 2 if the suite could not be run.
+ * <p>
+ * Usage: java debug.PerftSuite &lt;epd file&gt; [max depth] [threads] [table bits]
+ * @author Spork Innovation Technologies
+ */
+public class PerftSuite {
+	//----------------------Constants----------------------
+	/** The deepest count checked when no maximum depth is given. */
+	public static final int DEFAULT_MAX_DEPTH = 6;
+	/** The exit code when every count matched. */
+	public static final int EXIT_PASS = 0;
+	/** The exit code when at least one count did not match. */
+	public static final int EXIT_FAIL = 1;
+	/** The exit code when the arguments or the suite could not be read. */
+	public static final int EXIT_ERROR = 2;
+	private static final DecimalFormat KNPS = new DecimalFormat("#.###");
+	//----------------------End of Constants----------------------
+
+	public static void main(String[] argv) {
+		if (argv.length == 0) {
+			System.err.println("Usage: java debug.PerftSuite <epd file> [max depth] [threads] [table bits]");
+			System.exit(EXIT_ERROR);
+		}
+		int max_depth = DEFAULT_MAX_DEPTH;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int table_bits = PerftEngine.DEFAULT_TABLE_BITS;
+		List<String> lines;
+		try {
+			if (argv.length > 1) max_depth = Integer.parseInt(argv[1]);
+			if (argv.length > 2) threads = Integer.parseInt(argv[2]);
+			if (argv.length > 3) table_bits = Integer.parseInt(argv[3]);
+			lines = readLines(argv[0]);
+		} catch (NumberFormatException ex) {
+			System.err.println("Invalid number: " + ex.getMessage());
+			System.exit(EXIT_ERROR);
+			return;
+		} catch (IOException ex) {
+			System.err.println("Could not read " + argv[0] + ": " + ex.getMessage());
+			System.exit(EXIT_ERROR);
+			return;
+		}
+		PerftEngine engine = new PerftEngine(threads, table_bits);
+		int code;
+		try {
+			code = run(lines, max_depth, engine, System.out);
+		} catch (RuntimeException ex) {
+			System.err.println("Suite aborted: " + ex);
+			code = EXIT_ERROR;
+		} finally {
+			engine.shutdown();
+		}
+		System.exit(code);
+	}
+	/**
+	 * Runs the perfts of an EPD suite and prints a line for each of them, followed by
+	 * a summary.
+	 * @param lines The lines of the EPD file. Blank lines and lines starting with '#'
+	 * are skipped.
+	 * @param max_depth The deepest count to check, deeper counts are skipped.
+	 * @param engine The perft engine to count with.
+	 * @param out The stream the results are printed to.
+	 * @return EXIT_PASS if every count matched, EXIT_FAIL otherwise.
+	 */
+	public static int run(List<String> lines, int max_depth, PerftEngine engine, PrintStream out) {
+		int passed = 0, failed = 0, record = 0;
+		long total_nodes = 0, total_time = 0;
+		out.println("#\tDepth\tNodes\tExpected\tTime(ms)\tkN/s\tResult");
+		for (String line : lines) {
+			line = line.trim();
+			if (line.length() == 0 || line.startsWith("#")) continue;
+			record++;
+			String[] fields = line.split(";");
+			Position p = Utility.loadFEN(fields[0]);
+			for (int i = 1; i < fields.length; i++) {
+				String field = fields[i].trim();
+				if (field.length() == 0 || field.charAt(0) != 'D') continue;
+				String[] count = field.substring(1).split("\\s+");
+				int depth = Integer.parseInt(count[0]);
+				long expected = Long.parseLong(count[1]);
+				if (depth > max_depth) continue;
+				long s_time = System.nanoTime();
+				long nodes = engine.perft(p, depth, false).nodes;
+				long e_time = System.nanoTime() - s_time;
+				boolean pass = nodes == expected;
+				if (pass) passed++;
+				else failed++;
+				total_nodes += nodes;
+				total_time += e_time;
+				out.println(record + "\t" + depth + "\t" + nodes + "\t" + expected + "\t" + e_time / 1000000
+						+ "\t" + KNPS.format(nodes / (e_time / 1e6)) + "\t"
+						+ (pass ? "pass" : "FAIL\t" + fields[0].trim()));
+			}
+		}
+		out.println("Passed " + passed + ", failed " + failed + ", " + total_nodes + " nodes in "
+				+ total_time / 1000000 + " ms, " + KNPS.format(total_nodes / (total_time / 1e6))
+				+ " kN/s");
+		return failed == 0 ? EXIT_PASS : EXIT_FAIL;
+	}
+
+	//----------------------Helper Methods----------------------
+	/**
+	 * Reads all the lines of a text file.
+	 */
+	private static List<String> readLines(String file) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			for (String line = in.readLine(); line != null; line = in.readLine()) lines.add(line);
+		} finally {
+			in.close();
+		}
+		return lines;
+	}
+	//----------------------End of Helper Methods----------------------
+}
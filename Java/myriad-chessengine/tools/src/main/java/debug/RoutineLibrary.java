@@ -1,7 +1,9 @@
 package debug;
 
+import java.io.File;
 import java.text.DecimalFormat;
 import rules.*;
+import tree.Pine;
 import debug.ConsoleV2.Routine;
 import eval.*;
 
@@ -107,6 +109,8 @@ public class RoutineLibrary {
 			outputLine ("\t\tperform the perft for depth 1 to the specified depth. Example:");
 			outputLine ("\t\tperft 5 d,s");
 			outputLine ("divide <depth> -> performs a divide test to a specific depth.");
+			outputLine ("savehash <file> -> saves the search's transposition table to a file.");
+			outputLine ("loadhash <file> -> loads a transposition table saved with savehash.");
 		}
 	}
 	public static class prim_evaluate extends Routine {
@@ -173,19 +177,13 @@ public class RoutineLibrary {
 			else outputLine ("Depth\tNodes\tTime(ms)\tkN/s");
 			int s_depth = serial ? 1 : depth;
 			for (int i = s_depth; i <= depth; i++){
-				check = 0;
-				checkmate = 0;
-				promotion = 0;
-				castle = 0;
-				ep = 0;
-				capture = 0;
 				long s_time = System.currentTimeMillis();
-				int nodes = Perft(i, p);
+				PerftEngine.Counts c = PERFT.perft(p, i, descriptive);
 				long e_time = System.currentTimeMillis() - s_time;
-				double n_per_sec = nodes/ (double)(e_time);
-				if (descriptive) outputLine(i+"\t"+nodes+"\t"+e_time+"\t"+dcf.format(n_per_sec)+"\t"+capture
-						+"\t"+check+"\t"+checkmate+"\t"+promotion+"\t"+ep+"\t"+castle);
-				else outputLine (i + "\t" + nodes + "\t" + e_time + "\t" + dcf.format(n_per_sec));
+				double n_per_sec = c.nodes/ (double)(e_time);
+				if (descriptive) outputLine(i+"\t"+c.nodes+"\t"+e_time+"\t"+dcf.format(n_per_sec)+"\t"+c.captures
+						+"\t"+c.checks+"\t"+c.checkmates+"\t"+c.promotions+"\t"+c.en_passants+"\t"+c.castles);
+				else outputLine (i + "\t" + c.nodes + "\t" + e_time + "\t" + dcf.format(n_per_sec));
 			}
 			outputLine("----------------Perf. Test End----------------");
 		}
@@ -206,44 +204,54 @@ public class RoutineLibrary {
 				outputLine ("Invalid usage. Usage is: perft <depth> <descriptive?>,<serial?>");
 				return;
 			}
+			if (depth < 1){
+				outputLine ("Invalid usage. The depth of a divide must be at least 1.");
+				return;
+			}
 			Move [] div = p.generateAllMoves();
+			long [] res = PERFT.divide(p, depth);
+			long total = 0;
 			outputLine("---------------Divide Start---------------");
 			outputLine ("Move\tNodes\tResulting FEN");
-			for (Move m: div){
-				Position newposition = p.makeMove(m);
-				int res = Perft(depth-1, newposition);
-				outputLine(m.toString(p) + "\t" + res + "\t" + Utility.saveFEN(newposition));
+			for (int i = 0; i < div.length; i++){
+				total += res[i];
+				outputLine(div[i].toString(p) + "\t" + res[i] + "\t" + Utility.saveFEN(p.makeMove(div[i])));
 			}
+			outputLine("Moves = " + div.length + "\tNodes = " + total);
 			outputLine("----------------Divide End----------------");
 		}
 	}
-	public static final DecimalFormat dcf = new DecimalFormat("#.###");
-	public static int check;
-	public static int checkmate;
-	public static int promotion;
-	public static int castle;
-	public static int ep;
-	public static int capture;
-	
-	private static int Perft (int depth, Position p){
-		int nodes = 0;
-		if (depth == 0){
-			byte mod = p.prior_move.getModifier();
-			if (p.isInCheck(false)) check ++;
-			if (p.getResult()==Position.BLACK_WINS||p.getResult()==Position.WHITE_WINS) checkmate++;
-			switch (mod){
-				case 10: capture++; break;
-				case 6: case 7: case 8: case 9: promotion++; break;
-				case 16: case 17: case 18: case 19: promotion++; capture++; break;
-				case 1: case 2: case 3: case 4: castle++; break;
-				case 5: ep++; capture++; break;
+	public static class savehash extends Routine {
+		public savehash(ConsoleV2 cs, Position p, String[] argv) {
+			super(cs, p, argv);
+		}
+		protected void start(Position p, String[] argv) throws Exception {
+			if (argv.length == 1) {
+				outputLine ("Invalid usage. Usage is: savehash <file>");
+				return;
 			}
-			return 1;
-		} 
-		Move[] move_list = p.generateAllMoves();
-		for (Move m: move_list){
-			nodes += Perft(depth-1, p.makeMove(m));
+			long s_time = System.currentTimeMillis();
+			Pine.table.save(new File(argv[1]));
+			outputLine ("Saved " + Pine.table.getMegabytes() + " MB in "
+					+ (System.currentTimeMillis() - s_time) + " ms.");
 		}
-		return nodes;	
 	}
+	public static class loadhash extends Routine {
+		public loadhash(ConsoleV2 cs, Position p, String[] argv) {
+			super(cs, p, argv);
+		}
+		protected void start(Position p, String[] argv) throws Exception {
+			if (argv.length == 1) {
+				outputLine ("Invalid usage. Usage is: loadhash <file>");
+				return;
+			}
+			long s_time = System.currentTimeMillis();
+			Pine.table.load(new File(argv[1]));
+			outputLine ("Loaded " + Pine.table.getMegabytes() + " MB in "
+					+ (System.currentTimeMillis() - s_time) + " ms.");
+		}
+	}
+	public static final DecimalFormat dcf = new DecimalFormat("#.###");
+	/** The perft engine shared by the perft and divide routines. */
+	private static final PerftEngine PERFT = new PerftEngine();
 }
\ No newline at end of file
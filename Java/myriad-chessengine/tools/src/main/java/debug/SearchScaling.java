@@ -0,0 +1,111 @@
+package debug;
+
+import java.io.*;
+import java.text.DecimalFormat;
+import java.util.*;
+
+import rules.*;
+import tree.*;
+
+/**
+ * A command line runner measuring how the parallel search scales. It searches every position
+ * of a FEN or EPD file (only the FEN of each line is read) to a fixed depth with 1 thread, then
+ * 2, 4 and so on up to the given number, and prints the time to reach the depth, the nodes,
+ * the speed and the speedup in time to depth over 1 thread. The positions are searched once
+ * before anything is timed, so that the search is compiled by then, and the transposition
+ * table is cleared before each position, so every run starts from the same state.
+ * <p>
+ * Usage: java debug.SearchScaling &lt;fen file&gt; [depth] [max threads] [shared|split]
+ * @author Spork Innovation Technologies
+ */
+public class SearchScaling {
+	//----------------------Constants----------------------
+	/** The depth searched to when none is given. */
+	public static final int DEFAULT_DEPTH = 8;
+	/** The exit code when the positions could not be read. */
+	public static final int EXIT_ERROR = 2;
+	private static final DecimalFormat DECIMAL = new DecimalFormat("#.###");
+	//----------------------End of Constants----------------------
+
+	public static void main(String[] argv) {
+		if (argv.length == 0) {
+			System.err.println("Usage: java debug.SearchScaling <fen file> [depth] [max threads] [shared|split]");
+			System.exit(EXIT_ERROR);
+		}
+		int depth = DEFAULT_DEPTH;
+		int max_threads = Runtime.getRuntime().availableProcessors();
+		int mode = Pine.SHARED_HASH;
+		List<Position> positions = new ArrayList<Position>();
+		try {
+			if (argv.length > 1) depth = Integer.parseInt(argv[1]);
+			if (argv.length > 2) max_threads = Integer.parseInt(argv[2]);
+			if (argv.length > 3) mode = argv[3].equals("split") ? Pine.SPLIT_POINTS : Pine.SHARED_HASH;
+			for (String line : readLines(argv[0])) {
+				line = line.trim();
+				if (line.length() == 0 || line.startsWith("#")) continue;
+				positions.add(Utility.loadFEN(line.split(";")[0].trim()));
+			}
+		} catch (NumberFormatException ex) {
+			System.err.println("Invalid number: " + ex.getMessage());
+			System.exit(EXIT_ERROR);
+			return;
+		} catch (IOException ex) {
+			System.err.println("Could not read " + argv[0] + ": " + ex.getMessage());
+			System.exit(EXIT_ERROR);
+			return;
+		}
+		run(positions, depth, max_threads, mode, System.out);
+		System.exit(0);
+	}
+	/**
+	 * Searches the positions with more and more threads and prints a line for each number of
+	 * threads: 1, then the powers of two below max_threads, then max_threads.
+	 * @param positions The positions to search.
+	 * @param depth The depth to search each position to.
+	 * @param max_threads The most threads to search with.
+	 * @param mode The parallel mode, Pine.SHARED_HASH or Pine.SPLIT_POINTS.
+	 * @param out The stream the results are printed to.
+	 */
+	public static void run(List<Position> positions, int depth, int max_threads, int mode, PrintStream out) {
+		Pine tree = new Pine();
+		tree.setParallelMode(mode);
+		long single_time = 0;
+		for (Position p : positions) {
+			Pine.table.clear();
+			tree.search(p, SearchLimits.depth(depth));
+		}
+		out.println("Threads\tTime(ms)\tNodes\tkN/s\tSpeedup");
+		for (int threads = 1; threads <= max_threads; threads = threads == max_threads ? threads + 1
+				: Math.min(threads * 2, max_threads)) {
+			tree.setThreads(threads);
+			long nodes = 0, time = 0;
+			for (Position p : positions) {
+				Pine.table.clear();
+				long s_time = System.nanoTime();
+				tree.search(p, SearchLimits.depth(depth));
+				time += System.nanoTime() - s_time;
+				nodes += tree.getNodes();
+			}
+			if (threads == 1) single_time = time;
+			out.println(threads + "\t" + time / 1000000 + "\t" + nodes + "\t"
+					+ DECIMAL.format(nodes / (time / 1e6)) + "\t" + DECIMAL.format((double) single_time / time));
+		}
+		tree.setThreads(1);
+	}
+
+	//----------------------Helper Methods----------------------
+	/**
+	 * Reads all the lines of a text file.
+	 */
+	private static List<String> readLines(String file) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			for (String line = in.readLine(); line != null; line = in.readLine()) lines.add(line);
+		} finally {
+			in.close();
+		}
+		return lines;
+	}
+	//----------------------End of Helper Methods----------------------
+}
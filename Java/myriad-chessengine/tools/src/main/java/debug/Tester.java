@@ -18,7 +18,7 @@ public class Tester {
 	
 	public static void testPVS(String fen){
 		Position p = Utility.loadFEN(fen);
-		Pine tree = new Pine(p);
+		Pine tree = new Pine();
 		tree.beginPVS(p, null, 4, p.isWhiteToMove()? 1:-1);
 		System.out.println(tree.getBestMove());
 	}
@@ -26,8 +26,8 @@ public class Tester {
 	public static void testRound(){
 		long hash = 123456789;
 		
-		Round table = new Round(3);
-		Move tm_1 = new Move((byte) 0x10, (byte) 0x22, (byte) 3);
+		Round table = new Round(Round.MIN_MEGABYTES);
+		int tm_1 = Move.encode((byte) 0x10, (byte) 0x22, (byte) 3, Piece.ROOK, Piece.NULL);
 		table.set(123453701, 999999, (byte) 4, true, true, tm_1, false);	
 		table.set(hash, -9999999, (byte) 4, true, true, tm_1, false);
 		
@@ -44,12 +44,11 @@ public class Tester {
 		System.out.println("Exact Value: " + ((data >> Round.EXACT_RSH) & Round.MASK_BIT));
 		// Retrieve bound
 		System.out.println("Bound: " + ((data >> Round.BOUND_RSH) & Round.MASK_BIT));
-		// Retrieve start sq
-		System.out.println("Start Square: " + ((data >> Round.STARTSQ_RSH) & Round.MASK_BYTE));
-		// Retrieve end sq
-		System.out.println("End Square: " + ((data >> Round.ENDSQ_RSH) & Round.MASK_BYTE));
-		// Retrieve modifier
-		System.out.println("Modifier: " + ((data >> Round.MODIFIER_RSH) & Round.MASK_4BIT));
+		// Retrieve the packed move
+		int move = (int) ((data >> Round.MOVE_RSH) & Round.MASK_MOVE);
+		System.out.println("Start Square: " + Move.startOf(move));
+		System.out.println("End Square: " + Move.endOf(move));
+		System.out.println("Modifier: " + Move.modifierOf(move));
 		// Retrieve white to move
 		System.out.println("White to Move: " + (data & Round.MASK_BIT));
 	}
@@ -21,7 +21,7 @@ public class Utility {
 	 * @return A Position object as described by the FEN string.
 	 */
 	public static Position loadFEN(String fen) {
-		String[] fenBoard = fen.split(" "), rank = fenBoard[0].split("/");
+		String[] fenBoard = fen.trim().split("\\s+"), rank = fenBoard[0].split("/");
 		int charactersPerSet = 8, fileNumber = 0;
 		int wp_count = 0, bp_count = 0, n_blank;
 		Piece[] w_map = new Piece[16], b_map = new Piece[16];
@@ -87,13 +87,12 @@ public class Utility {
 		String enPassant = fenBoard[3];
 		byte ensq;
 		if (enPassant.equalsIgnoreCase("-")) ensq = -1;
-		else ensq = (byte) ((enPassant.charAt(0) - 'a') + (enPassant.charAt(1) - 1) * 0x10);
+		else ensq = (byte) ((enPassant.charAt(0) - 'a') + (enPassant.charAt(1) - '1') * 0x10);
 		byte fiftyMove = 0;
 		short half_move_clock = 0;
-		if (fenBoard.length == 5) {
-			fiftyMove  = (byte) Integer.parseInt(fenBoard[4]);
-			half_move_clock = (short)(Integer.parseInt(fenBoard[5])*2);
-		}
+		// the move counters are optional, as in EPD records
+		if (fenBoard.length > 4) fiftyMove = (byte) Integer.parseInt(fenBoard[4]);
+		if (fenBoard.length > 5) half_move_clock = (short)(Integer.parseInt(fenBoard[5])*2);
 		return new Position(fiftyMove, ensq, castleRights, whiteMove, w_map, b_map, half_move_clock);
 	}
 